@@ -82,6 +82,20 @@ CREATE TABLE IF NOT EXISTS Valores_Campo (
     UNIQUE (entrada_diaria_id, campo_diario_id)
 );
 
+-- Progreso anual por usuario: bitmap de 366 bits (bit = día del año - 1) con los días completados
+CREATE TABLE IF NOT EXISTS Progreso_Anual (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL REFERENCES Usuario(id),
+    diario_id BIGINT NOT NULL REFERENCES Diario_Anual(id) ON DELETE CASCADE,
+    dias_completados BYTEA NOT NULL,
+    total_completados INTEGER NOT NULL DEFAULT 0,
+    racha_actual INTEGER NOT NULL DEFAULT 0,
+    racha_maxima INTEGER NOT NULL DEFAULT 0,
+    ultima_fecha_completada DATE,
+    fecha_actualizacion TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (usuario_id, diario_id)
+);
+
 CREATE TABLE IF NOT EXISTS Meta_Anual (
     id BIGSERIAL PRIMARY KEY,
     usuario_id BIGINT NOT NULL REFERENCES Usuario(id),
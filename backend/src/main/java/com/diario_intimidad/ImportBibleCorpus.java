@@ -0,0 +1,166 @@
+package com.diario_intimidad;
+
+import com.diario_intimidad.dto.BibleVerse;
+import com.diario_intimidad.service.BibleBooks;
+import com.diario_intimidad.service.BibleCorpusFile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Genera el corpus local de una traducción ({@code <traduccion>.idx} + {@code <traduccion>.txt}).
+ *
+ * Uso: {@code ImportBibleCorpus <traduccion> <fichero|directorio> [directorioSalida]}
+ * <ul>
+ *   <li>JSON con el formato de bible-api.deno.dev (un capítulo o un array de capítulos con
+ *   {@code book}/{@code name}, {@code chapter} y {@code vers}/{@code verses}).</li>
+ *   <li>Volcado de texto tipo {@code bible_texts.txt} (bloques Libro / URL / Texto); esos
+ *   capítulos se guardan sin numerar y solo sirven para pedir el capítulo completo.</li>
+ * </ul>
+ */
+public class ImportBibleCorpus {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ImportBibleCorpus <traduccion> <fichero|directorio> [directorioSalida]");
+            System.exit(1);
+        }
+        String translation = args[0].toLowerCase();
+        Path input = Paths.get(args[1]);
+        Path output = Paths.get(args.length > 2 ? args[2] : "bible-corpus");
+
+        Map<Integer, SortedMap<Integer, List<BibleVerse>>> books = new HashMap<>();
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> walk = Files.walk(input)) {
+                walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+            }
+        } else {
+            files.add(input);
+        }
+        for (Path file : files) {
+            String content = readText(file);
+            if (content.startsWith("{") || content.startsWith("[")) {
+                importJson(MAPPER.readTree(content), books);
+            } else {
+                importDump(content, books);
+            }
+        }
+
+        BibleCorpusFile.write(output, translation, books);
+        int chapters = books.values().stream().mapToInt(Map::size).sum();
+        System.out.println("Corpus '" + translation + "' escrito en " + output.toAbsolutePath()
+                + ": " + books.size() + " libros, " + chapters + " capítulos");
+    }
+
+    private static void importJson(JsonNode node, Map<Integer, SortedMap<Integer, List<BibleVerse>>> books) {
+        if (node.isArray()) {
+            node.forEach(child -> importJson(child, books));
+            return;
+        }
+        String bookName = node.hasNonNull("book") ? node.get("book").asText() : node.path("name").asText();
+        int book = BibleBooks.indexOf(bookName);
+        int chapter = node.path("chapter").asInt();
+        JsonNode vers = node.has("vers") ? node.get("vers") : node.path("verses");
+        if (book < 0 || chapter < 1 || !vers.isArray()) {
+            System.err.println("Ignorado: libro '" + bookName + "' capítulo " + chapter);
+            return;
+        }
+        List<BibleVerse> verses = new ArrayList<>();
+        for (JsonNode v : vers) {
+            String text = v.hasNonNull("verse") ? v.get("verse").asText() : v.path("text").asText();
+            verses.add(new BibleVerse(v.path("number").asInt(), text.trim()));
+        }
+        books.computeIfAbsent(book, b -> new TreeMap<>()).put(chapter, verses);
+    }
+
+    private static void importDump(String content, Map<Integer, SortedMap<Integer, List<BibleVerse>>> books) {
+        String bookName = null;
+        int chapter = 1;
+        for (String line : content.split("\\R")) {
+            if (line.startsWith("Libro:")) {
+                bookName = line.substring("Libro:".length()).trim();
+                chapter = 1;
+            } else if (line.startsWith("URL:")) {
+                String url = line.substring("URL:".length()).trim();
+                try {
+                    chapter = Integer.parseInt(url.substring(url.lastIndexOf('/') + 1));
+                } catch (NumberFormatException e) {
+                    chapter = 1;
+                }
+            } else if (line.startsWith("Texto:") && bookName != null) {
+                int book = BibleBooks.indexOf(bookName);
+                String text = line.substring("Texto:".length()).trim();
+                if (book < 0 || text.isEmpty()) {
+                    System.err.println("Ignorado: libro '" + bookName + "' capítulo " + chapter);
+                    continue;
+                }
+                books.computeIfAbsent(book, b -> new TreeMap<>())
+                        .put(chapter, List.of(new BibleVerse(0, text)));
+            }
+        }
+    }
+
+    private static String readText(Path file) throws IOException {
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        if (content.startsWith("\uFEFF")) {
+            content = content.substring(1);
+        }
+        return repairMojibake(content.trim());
+    }
+
+    // Volcados guardados como UTF-8 leído en windows-1252 o latin-1 ("creÃ³" en lugar de "creó")
+    private static String repairMojibake(String content) {
+        if (!content.contains("Ã")) {
+            return content;
+        }
+        Map<Character, Byte> windows1252 = new HashMap<>();
+        Charset cp1252 = Charset.forName("windows-1252");
+        for (int b = 0x80; b < 0x100; b++) {
+            String c = new String(new byte[]{(byte) b}, cp1252);
+            if (c.length() == 1 && c.charAt(0) != '\uFFFD') {
+                windows1252.put(c.charAt(0), (byte) b);
+            }
+        }
+        ByteBuffer raw = ByteBuffer.allocate(content.length());
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            Byte b = windows1252.get(c);
+            if (b != null) {
+                raw.put(b);
+            } else if (c < 0x100) {
+                raw.put((byte) c);
+            } else {
+                return content;
+            }
+        }
+        raw.flip();
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(raw)
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return content;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.diario_intimidad.config;
 
 import com.diario_intimidad.entity.Usuario;
-import com.diario_intimidad.service.UsuarioService;
+import com.diario_intimidad.service.UsuarioAccessIndex;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,7 +17,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,7 +27,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UsuarioService usuarioService;
+    private UsuarioAccessIndex usuarioAccessIndex;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -43,37 +42,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
         logger.info("Processing request: {} {}", request.getMethod(), requestURI);
 
-        String email = null;
-        String jwt = null;
+        JwtClaims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             logger.info("Authorization header present");
-            jwt = authorizationHeader.substring(7);
-            email = jwtUtil.extractEmail(jwt);
-            logger.info("Extracted email from token: {}", email);
+            // Una sola verificación de firma y caducidad por petición (o ninguna si el token ya se verificó)
+            claims = jwtUtil.verify(authorizationHeader.substring(7));
+            logger.info("Extracted email from token: {}", claims != null ? claims.email() : null);
         } else {
             logger.info("No Authorization header");
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String email = claims.email();
             logger.info("Attempting to authenticate user: {}", email);
-            Optional<Usuario> usuario = usuarioService.findByEmail(email);
-            if (usuario.isPresent() && jwtUtil.validateToken(jwt, email)) {
-                String rol = jwtUtil.extractRol(jwt);
+            // Usuario existente y token emitido después de su último cambio de rol o contraseña, sin consultar la base de datos
+            Usuario.Rol rol = parseRol(claims.rol());
+            if (rol != null && usuarioAccessIndex.isValid(claims.usuarioId(), claims.issuedAtMillis())) {
                 logger.info("Authentication successful for: {} with role: {}", email, rol);
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        usuario.get(), null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + rol)));
+                        principal(claims, rol), null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + rol)));
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 logger.info("Authentication set in SecurityContext");
             } else {
-                logger.info("Authentication failed for: {} - user present: {}, token valid: {}", email, usuario.isPresent(), jwtUtil.validateToken(jwt, email));
+                logger.info("Authentication failed for: {} - user deleted or token revoked", email);
             }
-        } else if (email == null) {
-            logger.info("No email extracted, proceeding without authentication");
+        } else if (claims == null) {
+            logger.info("No valid token, proceeding without authentication");
         } else {
-            logger.info("Authentication already set or email null");
+            logger.info("Authentication already set");
         }
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Principal ligero: solo id, email y rol, tomados del token
+    private static Usuario principal(JwtClaims claims, Usuario.Rol rol) {
+        Usuario usuario = new Usuario();
+        usuario.setId(claims.usuarioId());
+        usuario.setEmail(claims.email());
+        usuario.setRol(rol);
+        return usuario;
+    }
+
+    private static Usuario.Rol parseRol(String rol) {
+        try {
+            return rol != null ? Usuario.Rol.valueOf(rol) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.diario_intimidad.config;
+
+/**
+ * Datos de un token ya verificado (firma y caducidad). Inmutable, se comparte entre peticiones.
+ */
+public record JwtClaims(Long usuarioId, String email, String rol, long issuedAtMillis, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -1,26 +1,54 @@
 package com.diario_intimidad.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+
     private final Key key;
 
-    public JwtUtil(@Value("${jwt.secret:defaultSecretKeyForDevelopmentOnly123456789012345678901234567890}") String secret) {
+    // El parser de jjwt es inmutable y seguro para hilos: se construye una sola vez
+    private final JwtParser parser;
+
+    // Tokens ya verificados, por hash SHA-256 del token, hasta su caducidad
+    private final Map<String, JwtClaims> verified = new ConcurrentHashMap<>();
+
+    private final int maxCachedTokens;
+
+    public JwtUtil(@Value("${jwt.secret:defaultSecretKeyForDevelopmentOnly123456789012345678901234567890}") String secret,
+                   @Value("${jwt.cache.max-entries:10000}") int maxCachedTokens) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.maxCachedTokens = maxCachedTokens;
     }
 
-    public String generateToken(String email, String rol) {
+    /**
+     * Token con el id, el email y el rol del usuario: basta para autenticar sin consultar la base de datos.
+     */
+    public String generateToken(Long usuarioId, String email, String rol) {
         return Jwts.builder()
                 .setSubject(email)
+                .claim("uid", usuarioId)
                 .claim("rol", rol)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 horas
@@ -28,33 +56,66 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public String extractRol(String token) {
-        return extractClaim(token, claims -> claims.get("rol", String.class));
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verifica firma y caducidad una sola vez y devuelve los datos del token, o null si no es válido.
+     * Los tokens ya verificados se sirven desde memoria hasta su {@code exp}.
+     */
+    public JwtClaims verify(String token) {
+        return verify(token, System.currentTimeMillis());
     }
 
-    public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // now solo decide la caducidad de los tokens en caché; jjwt comprueba la de los nuevos con su reloj
+    JwtClaims verify(String token, long now) {
+        String hash = hash(token);
+        JwtClaims cached = verified.get(hash);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verified.remove(hash, cached);
+            return null;
+        }
+        JwtClaims claims;
+        try {
+            Claims body = parser.parseClaimsJws(token).getBody();
+            Long usuarioId = body.get("uid", Long.class);
+            // Los tokens anteriores a "uid" no bastan para autenticar sin base de datos: hay que volver a iniciar sesión
+            if (usuarioId == null || body.getSubject() == null || body.getIssuedAt() == null || body.getExpiration() == null) {
+                return null;
+            }
+            claims = new JwtClaims(usuarioId, body.getSubject(), body.get("rol", String.class),
+                    body.getIssuedAt().getTime(), body.getExpiration().getTime());
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Token rechazado: {}", e.getMessage());
+            return null;
+        }
+        remember(hash, claims, now);
+        return claims;
     }
 
-    public Boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return (extractedEmail.equals(email) && !isTokenExpired(token));
+    private void remember(String hash, JwtClaims claims, long now) {
+        if (verified.size() >= maxCachedTokens) {
+            verified.values().removeIf(c -> c.isExpired(now));
+            // Sigue llena de tokens vigentes: se descarta uno cualquiera
+            Iterator<String> it = verified.keySet().iterator();
+            while (verified.size() >= maxCachedTokens && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verified.put(hash, claims);
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    int cachedTokens() {
+        return verified.size();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
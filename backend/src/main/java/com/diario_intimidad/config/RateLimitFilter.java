@@ -0,0 +1,97 @@
+package com.diario_intimidad.config;
+
+import com.diario_intimidad.entity.Usuario;
+import com.diario_intimidad.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Limita las rutas públicas (login, alta de pedidos, API bíblica y catálogo de diarios) por IP y,
+ * si la petición trae un token válido, también por usuario. Va después de {@link JwtAuthenticationFilter}
+ * para conocer al usuario. Si se supera el límite responde 429 con {@code Retry-After}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    // Solo detrás de un proxy propio: si no, cualquiera podría elegir su IP
+    @Value("${app.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimiter.Group group = group(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String ip = clientIp(request);
+        long retryAfterMs = rateLimiter.tryAcquire(group, ip, usuarioId());
+        if (retryAfterMs > 0) {
+            logger.warn("Rate limit exceeded for {} on {} {}", ip, request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write("Demasiadas peticiones, inténtalo de nuevo más tarde".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static RateLimiter.Group group(String method, String uri) {
+        if ("OPTIONS".equals(method)) {
+            return null;
+        }
+        if (uri.equals("/api/auth/login")) {
+            return RateLimiter.Group.LOGIN;
+        }
+        if (uri.equals("/api/pedidos") && "POST".equals(method)) {
+            return RateLimiter.Group.PEDIDOS;
+        }
+        if (uri.startsWith("/api/bible/")) {
+            return RateLimiter.Group.BIBLE;
+        }
+        if (uri.equals("/api/diarios-anuales")) {
+            return RateLimiter.Group.DIARIOS;
+        }
+        return null;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static Long usuarioId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Usuario usuario) {
+            return usuario.getId();
+        }
+        return null;
+    }
+}
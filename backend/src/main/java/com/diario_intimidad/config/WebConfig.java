@@ -4,11 +4,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -22,6 +24,10 @@ public class WebConfig implements WebMvcConfigurer {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String resolvedPath = Paths.get(uploadDir).toAbsolutePath().toString();
         String location = "file:" + resolvedPath + "/";
+        // Ficheros con nombre por contenido (MediaStore): nunca cambian, caché permanente en navegador y proxies
+        registry.addResourceHandler("/uploads/images/media/**")
+                .addResourceLocations(location + "images/media/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
         logger.info("Configuring resource handler for /uploads/** -> {}", location);
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations(location);
@@ -3,16 +3,22 @@ package com.diario_intimidad.controller;
 import com.diario_intimidad.dto.LoginRequest;
 import com.diario_intimidad.dto.LoginResponse;
 import com.diario_intimidad.entity.Usuario;
+import com.diario_intimidad.service.PasswordHashingService;
+import com.diario_intimidad.service.RateLimiter;
 import com.diario_intimidad.service.UsuarioService;
 import com.diario_intimidad.config.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,18 +32,47 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    /**
+     * El hash BCrypt se calcula en el pool de login; con la cola llena se responde 429 al momento.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
         logger.info("Login attempt for email: {}", loginRequest.getEmail());
-        Optional<Usuario> usuario = usuarioService.authenticate(loginRequest);
-        if (usuario.isPresent()) {
-            logger.info("Login successful for email: {}", loginRequest.getEmail());
-            String token = jwtUtil.generateToken(usuario.get().getEmail(), usuario.get().getRol().name());
-            LoginResponse response = new LoginResponse(token, usuario.get().getEmail(), usuario.get().getRol().name(), usuario.get().getId());
-            return ResponseEntity.ok(response);
-        } else {
-            logger.warn("Login failed for email: {}", loginRequest.getEmail());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales inválidas");
+        CompletableFuture<Optional<Usuario>> authentication;
+        try {
+            authentication = usuarioService.authenticate(loginRequest);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Login rejected, hashing queue full: {}", loginRequest.getEmail());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiados inicios de sesión simultáneos, inténtalo de nuevo en unos segundos"));
         }
+        return authentication.thenApply(usuario -> {
+            if (usuario.isPresent()) {
+                logger.info("Login successful for email: {}", loginRequest.getEmail());
+                String token = jwtUtil.generateToken(usuario.get().getId(), usuario.get().getEmail(), usuario.get().getRol().name());
+                LoginResponse response = new LoginResponse(token, usuario.get().getEmail(), usuario.get().getRol().name(), usuario.get().getId());
+                return ResponseEntity.ok(response);
+            } else {
+                logger.warn("Login failed for email: {}", loginRequest.getEmail());
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales inválidas");
+            }
+        });
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    @GetMapping("/rate-limit")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,70 @@
 package com.diario_intimidad.controller;
 
+import com.diario_intimidad.dto.BibleStoredPassage;
+import com.diario_intimidad.dto.BibleVerse;
+import com.diario_intimidad.dto.BibleVersesRequest;
+import com.diario_intimidad.service.BibleBooks;
+import com.diario_intimidad.service.BiblePassageKey;
+import com.diario_intimidad.service.BiblePrefetchService;
+import com.diario_intimidad.service.BibleReference;
+import com.diario_intimidad.service.BibleSearchIndex;
+import com.diario_intimidad.service.BibleSearchService;
+import com.diario_intimidad.service.BibleService;
+import com.diario_intimidad.service.BibleVerseCache;
+import com.diario_intimidad.service.BibleVerseStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/bible")
 @CrossOrigin(origins = "http://localhost:3005")
 public class BibleController {
 
-    private final WebClient webClient;
+    private static final Logger logger = LoggerFactory.getLogger(BibleController.class);
 
     @Autowired
-    public BibleController(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
-    }
+    private BibleService bibleService;
+
+    @Autowired
+    private BibleVerseCache bibleVerseCache;
+
+    @Autowired
+    private BiblePrefetchService biblePrefetchService;
+
+    @Autowired
+    private BibleSearchService bibleSearchService;
+
+    @Autowired
+    private BibleVerseStore bibleVerseStore;
+
+    @Value("${app.bible.batch.concurrency:6}")
+    private int batchConcurrency;
+
+    @Value("${app.bible.batch.max-references:100}")
+    private int batchMaxReferences;
+
+    @Value("${app.bible.compare.max-translations:6}")
+    private int compareMaxTranslations;
 
     @GetMapping("/verse/{reference}")
     public Mono<ResponseEntity<Map>> getVerse(
@@ -27,98 +72,231 @@ public class BibleController {
             @RequestParam(defaultValue = "rv1960") String translation,
             @RequestParam(defaultValue = "true") boolean includeNumbers) {
 
-        System.out.println("Received reference: " + reference + ", translation: " + translation + ", includeNumbers: " + includeNumbers);
+        logger.debug("Received reference: {}, translation: {}, includeNumbers: {}", reference, translation, includeNumbers);
+        return resolveVerse(reference, translation, includeNumbers).map(ResponseEntity::ok);
+    }
 
-        // Parse reference
-        String[] parts = parseReference(reference);
-        if (parts != null) {
-            // Use bible-api.deno.dev API for all translations
-                String bookCode = getBookCode(parts[0]);
-                String url;
-                if (parts[2].isEmpty()) {
-                    // Chapter only
-                    url = "https://bible-api.deno.dev/api/read/" + translation + "/" + bookCode + "/" + parts[1];
-                } else {
-                    url = "https://bible-api.deno.dev/api/read/" + translation + "/" + bookCode + "/" + parts[1] + "/" + parts[2];
+    // Misma consulta con la referencia en la query: el firewall de Spring Security rechaza ";" en la ruta,
+    // así que las referencias compuestas ("Juan 3:16; 5:1") deben llegar por aquí
+    @GetMapping("/verse")
+    public Mono<ResponseEntity<Map>> getVerseByQuery(
+            @RequestParam String reference,
+            @RequestParam(defaultValue = "rv1960") String translation,
+            @RequestParam(defaultValue = "true") boolean includeNumbers) {
+        return getVerse(reference, translation, includeNumbers);
+    }
+
+    /**
+     * Varias referencias en una sola petición. Se resuelven en paralelo (hasta
+     * {@code app.bible.batch.concurrency} a la vez), las repetidas una sola vez, y cada resultado
+     * se envía como una línea NDJSON en el orden de entrada en cuanto está listo.
+     */
+    @PostMapping(value = "/verses", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<Map>> getVerses(@RequestBody BibleVersesRequest request) {
+        List<String> references = request.getReferences();
+        if (references == null || references.isEmpty()) {
+            return ResponseEntity.badRequest().body(Flux.just(Map.of("error", "Se requiere al menos una referencia")));
+        }
+        if (references.size() > batchMaxReferences) {
+            return ResponseEntity.badRequest().body(Flux.just(Map.of("error", "Máximo " + batchMaxReferences + " referencias por petición")));
+        }
+        String translation = request.getTranslation() != null ? request.getTranslation() : "rv1960";
+        boolean includeNumbers = request.getIncludeNumbers() == null || request.getIncludeNumbers();
+
+        Map<String, Mono<Map>> unique = new ConcurrentHashMap<>();
+        Flux<Map> verses = Flux.fromIterable(references)
+                .map(reference -> reference == null ? "" : reference.trim())
+                .flatMapSequential(reference -> unique.computeIfAbsent(reference,
+                        r -> resolveVerse(r, translation, includeNumbers).cache()), batchConcurrency);
+        return ResponseEntity.ok(verses);
+    }
+
+    /**
+     * El mismo pasaje en varias traducciones, alineado por versículo. La referencia se analiza una vez
+     * y las traducciones se piden en paralelo a través de la caché; si una falla, su columna queda
+     * vacía y su estado lo indica, sin afectar al resto.
+     */
+    @GetMapping("/compare/{reference}")
+    public Mono<ResponseEntity<Map<String, Object>>> compare(
+            @PathVariable String reference,
+            @RequestParam(defaultValue = "rv1960,nvi,dhh,kjv") List<String> translations) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String translation : translations) {
+            if (!translation.isBlank()) {
+                ids.add(translation.trim().toLowerCase());
+            }
+        }
+        if (ids.isEmpty() || ids.size() > compareMaxTranslations) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Indica entre 1 y " + compareMaxTranslations + " traducciones")));
+        }
+        BibleReference parsed = BibleReference.parse(reference);
+        List<BiblePassageKey> passages = parsed != null ? bibleService.resolve(parsed, ids.iterator().next()) : null;
+        if (passages == null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Referencia no válida: " + reference)));
+        }
+        return Flux.fromIterable(ids)
+                .flatMapSequential(translation -> bibleService.getVerses(bibleService.resolve(parsed, translation))
+                        .map(verses -> new ComparedTranslation(translation, verses, null))
+                        .onErrorResume(e -> {
+                            logger.warn("Error comparing '{}' in {}: {}", reference, translation, e.getMessage());
+                            return Mono.just(new ComparedTranslation(translation, null, e.getMessage()));
+                        }))
+                .collectList()
+                .map(columns -> ResponseEntity.ok(alignVerses(reference, passages, columns)));
+    }
+
+    // Misma comparación con la referencia en la query, para referencias compuestas con ";"
+    @GetMapping("/compare")
+    public Mono<ResponseEntity<Map<String, Object>>> compareByQuery(
+            @RequestParam String reference,
+            @RequestParam(defaultValue = "rv1960,nvi,dhh,kjv") List<String> translations) {
+        return compare(reference, translations);
+    }
+
+    // Versículos de cada pasaje en una traducción, o el error si no se pudieron obtener
+    private record ComparedTranslation(String translation, List<List<BibleVerse>> passages, String error) {
+    }
+
+    // Una fila por libro, capítulo y versículo, en el orden de la referencia, con el texto de cada traducción
+    private Map<String, Object> alignVerses(String reference, List<BiblePassageKey> passages, List<ComparedTranslation> columns) {
+        List<Map<String, Object>> translations = new ArrayList<>(columns.size());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (ComparedTranslation column : columns) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("id", column.translation());
+            status.put("name", getTranslationName(column.translation()));
+            if (column.error() != null) {
+                status.put("status", "error");
+                status.put("error", column.error());
+            } else {
+                boolean found = column.passages().stream().anyMatch(verses -> !verses.isEmpty());
+                status.put("status", found ? "ok" : "not_found");
+            }
+            translations.add(status);
+        }
+        for (int p = 0; p < passages.size(); p++) {
+            BiblePassageKey passage = passages.get(p);
+            TreeMap<Integer, Map<String, String>> byNumber = new TreeMap<>();
+            for (ComparedTranslation column : columns) {
+                if (column.error() != null) {
+                    continue;
+                }
+                for (BibleVerse verse : column.passages().get(p)) {
+                    byNumber.computeIfAbsent(verse.number(), n -> new HashMap<>()).put(column.translation(), verse.text());
                 }
-                System.out.println("Calling Bible API for reference '" + reference + "': " + url);
-                System.out.println("Parsed: book='" + parts[0] + "', chapter='" + parts[1] + "', verse='" + (parts[2].isEmpty() ? "all (chapter)" : parts[2]) + "'");
-                return webClient.get()
-                        .uri(url)
-                        .retrieve()
-                        .bodyToMono(Object.class)
-                        .map(response -> {
-                             // Debug: print response
-                             System.out.println("API Response: " + response);
-                             List<Map<String, Object>> verses = null;
-                             if (response instanceof List) {
-                                 // Response is a list of verse objects (for specific verses)
-                                 verses = (List<Map<String, Object>>) response;
-                             } else if (response instanceof Map) {
-                                 // Response is a map, check for "vers" key (for chapter)
-                                 Map<String, Object> map = (Map<String, Object>) response;
-                                 if (map.containsKey("vers")) {
-                                     verses = (List<Map<String, Object>>) map.get("vers");
-                                 } else if (map.containsKey("verses")) {
-                                     verses = (List<Map<String, Object>>) map.get("verses");
-                                 } else {
-                                     // Fallback, assume it's a single verse map
-                                     verses = List.of(map);
-                                 }
-                             }
-                             System.out.println("Extracted verses list size: " + (verses != null ? verses.size() : "null"));
-                             StringBuilder textBuilder = new StringBuilder();
-                             if (verses != null) {
-                                 for (Map<String, Object> verse : verses) {
-                                     Integer number = (Integer) verse.get("number");
-                                     String verseText = (String) verse.get("verse");
-                                     System.out.println("Processing verse " + number + ": " + (verseText != null ? verseText.substring(0, Math.min(50, verseText.length())) + "..." : "null"));
-                                     if (verseText != null) {
-                                         if (includeNumbers && number != null) {
-                                             textBuilder.append(number).append(" ").append(verseText).append(" ");
-                                         } else {
-                                             textBuilder.append(verseText).append(" ");
-                                         }
-                                     }
-                                 }
-                             }
-                             String text = textBuilder.toString().trim();
-                             System.out.println("Final text length: " + text.length() + ", starts with: " + (text.length() > 50 ? text.substring(0, 50) + "..." : text));
-                             Map transformed = Map.of(
-                                 "reference", reference,
-                                 "text", !text.isEmpty() ? text : "Texto no encontrado",
-                                 "translation_id", translation,
-                                 "translation_name", getTranslationName(translation)
-                             );
-                             return ResponseEntity.ok(transformed);
-                         })
-                         .onErrorResume(e -> {
-                             // Log the error
-                             System.err.println("Error calling Bible API: " + e.getMessage());
-                             System.out.println("API call failed for reference '" + reference + "', using fallback. Error: " + e.getMessage());
-                             // Fallback to mock
-                             String fallbackText = getBibleText(reference, translation);
-                             Map mockResponse = Map.of(
-                                 "reference", reference,
-                                 "text", fallbackText,
-                                 "translation_id", translation,
-                                 "translation_name", getTranslationName(translation)
-                             );
-                             return Mono.just(ResponseEntity.ok(mockResponse));
-                         });
+            }
+            for (Map.Entry<Integer, Map<String, String>> verse : byNumber.entrySet()) {
+                Map<String, String> texts = new LinkedHashMap<>();
+                for (ComparedTranslation column : columns) {
+                    texts.put(column.translation(), verse.getValue().get(column.translation()));
+                }
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("book", BibleBooks.name(BibleBooks.indexOf(passage.bookCode())));
+                row.put("chapter", passage.chapter());
+                row.put("verse", verse.getKey());
+                row.put("texts", texts);
+                rows.add(row);
+            }
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("reference", reference);
+        response.put("translations", translations);
+        response.put("rows", rows);
+        return response;
+    }
+
+    /**
+     * Búsqueda de texto en el corpus local: palabras (todas deben aparecer), frases entre comillas
+     * y prefijos con "*", sin distinguir tildes ni mayúsculas. Resultados ordenados por relevancia.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "rv1960") String translation,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        long start = System.nanoTime();
+        BibleSearchIndex.Page result;
+        try {
+            result = bibleSearchService.search(q, translation, page, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        List<Map<String, Object>> results = new ArrayList<>(result.hits().size());
+        for (BibleSearchIndex.Hit hit : result.hits()) {
+            String chapter = BibleBooks.name(hit.book()) + " " + hit.chapter();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("reference", hit.number() > 0 ? chapter + ":" + hit.number() : chapter);
+            item.put("book", BibleBooks.name(hit.book()));
+            item.put("chapter", hit.chapter());
+            item.put("verse", hit.number());
+            item.put("text", hit.text());
+            item.put("score", Math.round(hit.score() * 1000) / 1000.0);
+            results.add(item);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("query", q);
+        response.put("translation", translation);
+        response.put("total", result.total());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
+    private Mono<Map> resolveVerse(String reference, String translation, boolean includeNumbers) {
+        // Parse reference
+        List<BiblePassageKey> keys = bibleService.resolve(reference, translation);
+        if (keys != null) {
+            // Caché de versículos, corpus local y, si falta el pasaje, bible-api.deno.dev
+            return bibleService.getVerses(keys)
+                    .<Map>map(passages -> {
+                        String text = bibleService.joinVerses(passages, includeNumbers);
+                        return Map.of(
+                                "reference", reference,
+                                "text", !text.isEmpty() ? text : "Texto no encontrado",
+                                "verses", toVerseList(keys, passages),
+                                "translation_id", translation,
+                                "translation_name", getTranslationName(translation)
+                        );
+                    })
+                    .onErrorResume(e -> {
+                        logger.warn("API call failed for reference '{}' in {}, using fallback: {}", reference, translation, e.getMessage());
+                        // Fallback to mock
+                        String fallbackText = getBibleText(reference, translation);
+                        Map mockResponse = Map.of(
+                            "reference", reference,
+                            "text", fallbackText,
+                            "translation_id", translation,
+                            "translation_name", getTranslationName(translation)
+                        );
+                        return Mono.just(mockResponse);
+                    });
        } else {
            // If cannot parse, it's reading text, return as mock
-           System.out.println("Cannot parse reference '" + reference + "', returning as reading text.");
+           logger.debug("Cannot parse reference '{}', returning as reading text", reference);
            Map<String, Object> mockResponse = Map.of(
                "reference", "Lectura Bíblica",
                "text", reference,
                "translation_id", "es",
                "translation_name", "Lectura Diaria"
            );
-           return Mono.just(ResponseEntity.ok(mockResponse));
+           return Mono.just(mockResponse);
        }
     }
 
+    // Versículos con capítulo y número, para que el cliente decida cómo mostrar la numeración
+    private List<Map<String, Object>> toVerseList(List<BiblePassageKey> keys, List<List<BibleVerse>> passages) {
+        List<Map<String, Object>> verses = new ArrayList<>();
+        for (int p = 0; p < keys.size(); p++) {
+            for (BibleVerse verse : passages.get(p)) {
+                verses.add(Map.of("chapter", keys.get(p).chapter(), "number", verse.number(), "text", verse.text()));
+            }
+        }
+        return verses;
+    }
+
     private String getTranslationName(String id) {
         switch (id) {
             case "rv1960": return "Reina Valera 1960";
@@ -131,96 +309,6 @@ public class BibleController {
         }
     }
 
-    private String[] parseReference(String reference) {
-        // Parse "Book Chapter:Verse" or "Book Chapter:Verse-Verse" or "Book Chapter" to ["Book", "Chapter", "Verse"]
-        int lastSpace = reference.lastIndexOf(" ");
-        if (lastSpace == -1) return null;
-        String book = reference.substring(0, lastSpace);
-        String chapterVerse = reference.substring(lastSpace + 1);
-        String[] cv = chapterVerse.split(":");
-        if (cv.length == 2) {
-            String verse = cv[1]; // Include range if present, e.g., "24-27"
-            return new String[]{book, cv[0], verse};
-        } else if (cv.length == 1) {
-            // Chapter only, e.g., "Juan 3"
-            return new String[]{book, cv[0], ""}; // Empty verse for chapter
-        }
-        return null;
-    }
-
-    private String getBookCode(String bookName) {
-        // Map book names to the exact names used by bible-api.deno.dev
-        switch (bookName.toLowerCase()) {
-            case "génesis": return "genesis";
-            case "éxodo": return "exodo";
-            case "levítico": return "levitico";
-            case "números": return "numeros";
-            case "deuteronomio": return "deuteronomio";
-            case "josué": return "josue";
-            case "jueces": return "jueces";
-            case "rut": return "rut";
-            case "1 samuel": return "1-samuel";
-            case "2 samuel": return "2-samuel";
-            case "1 reyes": return "1-reyes";
-            case "2 reyes": return "2-reyes";
-            case "1 crónicas": return "1-cronicas";
-            case "2 crónicas": return "2-cronicas";
-            case "esdras": return "esdras";
-            case "nehemías": return "nehemias";
-            case "ester": return "ester";
-            case "job": return "job";
-            case "salmos": return "salmos";
-            case "proverbios": return "proverbios";
-            case "eclesiastés": return "eclesiastes";
-            case "cantares": return "cantares";
-            case "isaías": return "isaias";
-            case "jeremías": return "jeremias";
-            case "lamentaciones": return "lamentaciones";
-            case "ezequiel": return "ezequiel";
-            case "daniel": return "daniel";
-            case "oseas": return "oseas";
-            case "joel": return "joel";
-            case "amós": return "amos";
-            case "abdías": return "abdias";
-            case "jonás": return "jonas";
-            case "miqueas": return "miqueas";
-            case "nahúm": return "nahum";
-            case "habacuc": return "habacuc";
-            case "sofónías": return "sofonias";
-            case "hageo": return "hageo";
-            case "zacarias": return "zacarias";
-            case "malaquías": return "malaquias";
-            case "mateo": return "mateo";
-            case "marcos": return "marcos";
-            case "lucas": return "lucas";
-            case "juan": return "juan";
-            case "hechos": return "hechos";
-            case "romanos": return "romanos";
-            case "1 corintios": return "1-corintios";
-            case "2 corintios": return "2-corintios";
-            case "gálatas": return "galatas";
-            case "efesios": return "efesios";
-            case "filipenses": return "filipenses";
-            case "colosenses": return "colosenses";
-            case "1 tesalonicenses": return "1-tesalonicenses";
-            case "2 tesalonicenses": return "2-tesalonicenses";
-            case "1 timoteo": return "1-timoteo";
-            case "2 timoteo": return "2-timoteo";
-            case "tito": return "tito";
-            case "filemón": return "filemon";
-            case "hebreos": return "hebreos";
-            case "santiago": return "santiago";
-            case "1 pedro": return "1-pedro";
-            case "2 pedro": return "2-pedro";
-            case "1 juan": return "1-juan";
-            case "2 juan": return "2-juan";
-            case "3 juan": return "3-juan";
-            case "judas": return "judas";
-            case "apocalipsis": return "apocalipsis";
-            default: return bookName.replace(" ", "-").toLowerCase();
-        }
-    }
-
     private String getBibleText(String reference, String translation) {
         // Mock with real Bible texts for known references
         if (reference.equals("Juan 3:16")) {
@@ -234,6 +322,44 @@ public class BibleController {
         }
     }
 
+    // Sonda de disponibilidad: 503 hasta que termina la precarga inicial de versículos
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, String>> getReady() {
+        if (biblePrefetchService.isReady()) {
+            return ResponseEntity.ok(Map.of("status", "UP"));
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "WARMING_UP"));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(bibleVerseCache.getStats());
+        stats.putAll(bibleService.getUpstreamStats());
+        stats.put("search", bibleSearchService.getStats());
+        stats.put("store", bibleVerseStore.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Volcado NDJSON de bible_verse_cache, para arrancar otro nodo con el almacén ya lleno.
+     */
+    @GetMapping(value = "/store/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<BibleStoredPassage>> exportStore() {
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"bible_verse_cache.ndjson\"")
+                .body(bibleVerseStore.exportAll());
+    }
+
+    @PostMapping("/store/import")
+    public ResponseEntity<Map<String, Object>> importStore(InputStream body) {
+        try {
+            BibleVerseStore.ImportResult result = bibleVerseStore.importFrom(body);
+            return ResponseEntity.ok(Map.of("imported", result.imported(), "skipped", result.skipped()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No se pudo leer el fichero: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/translations")
     public ResponseEntity<Map[]> getTranslations() {
         // Lista de traducciones disponibles según la API
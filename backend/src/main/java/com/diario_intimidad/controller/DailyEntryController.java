@@ -4,15 +4,15 @@ import com.diario_intimidad.config.JwtUtil;
 import com.diario_intimidad.dto.CalendarEntryResponse;
 import com.diario_intimidad.dto.DailyEntryRequest;
 import com.diario_intimidad.dto.DailyEntryResponse;
+import com.diario_intimidad.dto.DiaCalendarioResponse;
+import com.diario_intimidad.dto.EntradaResumen;
+import com.diario_intimidad.dto.ValorCampoResponse;
 import com.diario_intimidad.entity.*;
-import com.diario_intimidad.repository.CamposDiarioRepository;
 import com.diario_intimidad.repository.DiarioAnualRepository;
-import com.diario_intimidad.repository.EntradaDiariaRepository;
-import com.diario_intimidad.repository.MesMaestroRepository;
-import com.diario_intimidad.repository.DiaMaestroRepository;
 import com.diario_intimidad.repository.UsuarioRepository;
-import com.diario_intimidad.repository.ValoresCampoRepository;
 import com.diario_intimidad.service.DailyEntryService;
+import com.diario_intimidad.service.DraftBufferService;
+import com.diario_intimidad.service.ProgresoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -20,13 +20,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,13 +37,13 @@ public class DailyEntryController {
     private DailyEntryService dailyEntryService;
 
     @Autowired
-    private DiarioAnualRepository diarioAnualRepository;
+    private DraftBufferService draftBufferService;
 
     @Autowired
-    private MesMaestroRepository mesMaestroRepository;
+    private ProgresoService progresoService;
 
     @Autowired
-    private DiaMaestroRepository diaMaestroRepository;
+    private DiarioAnualRepository diarioAnualRepository;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -56,15 +51,6 @@ public class DailyEntryController {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
-    @Autowired
-    private CamposDiarioRepository camposDiarioRepository;
-
-    @Autowired
-    private EntradaDiariaRepository entradaDiariaRepository;
-
-    @Autowired
-    private ValoresCampoRepository valoresCampoRepository;
-
     @GetMapping("/diarios")
     public ResponseEntity<List<DiarioAnual>> getDiariosDisponibles() {
         List<DiarioAnual> diarios = diarioAnualRepository.findAll();
@@ -102,33 +88,71 @@ public class DailyEntryController {
         }
 
         logger.info("Respuesta completa: fecha={}, tipoDia={}, lecturaBiblica={}, versiculoDiario={}, diarioAnual={}",
-            response.getFecha(), response.getTipoDia(), response.getLecturaBiblica(), response.getVersiculoDiario(),
-            response.getDiarioAnual() != null ? response.getDiarioAnual().getTitulo() : "null");
+            response.fecha(), response.tipoDia(), response.lecturaBiblica(), response.versiculoDiario(),
+            response.diarioAnual() != null ? response.diarioAnual().titulo() : "null");
         logger.info("Retornando 200 OK con respuesta");
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/user-entries")
-    public ResponseEntity<List<EntradaDiaria>> getUserEntries(@RequestParam Integer anio, @RequestParam Integer mes, @AuthenticationPrincipal Usuario usuario) {
+    public ResponseEntity<List<EntradaResumen>> getUserEntries(@RequestParam Integer anio, @RequestParam Integer mes, @AuthenticationPrincipal Usuario usuario) {
         if (usuario == null) {
             return ResponseEntity.status(401).build();
         }
-        List<EntradaDiaria> entradas = dailyEntryService.getEntradasByUsuarioAndMes(usuario.getId(), anio, mes);
+        List<EntradaResumen> entradas = dailyEntryService.getEntradasByUsuarioAndMes(usuario.getId(), anio, mes);
         return ResponseEntity.ok(entradas);
     }
 
+    @GetMapping("/month")
+    public ResponseEntity<List<DiaCalendarioResponse>> getMonth(@RequestParam Integer anio, @RequestParam Integer mes, @AuthenticationPrincipal Usuario usuario) {
+        if (usuario == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (mes < 1 || mes > 12) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dailyEntryService.getMonthData(usuario.getId(), anio, mes));
+    }
+
+    @GetMapping("/progress")
+    public ResponseEntity<?> getProgress(@RequestParam(required = false) Integer anio, @AuthenticationPrincipal Usuario usuario) {
+        if (usuario == null) {
+            return ResponseEntity.status(401).build();
+        }
+        int year = anio != null ? anio : LocalDate.now().getYear();
+        try {
+            return ResponseEntity.ok(progresoService.getProgreso(usuario.getId(), year));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/entry-values/{entryId}")
-    public ResponseEntity<List<ValoresCampo>> getEntryValues(@PathVariable Long entryId, @AuthenticationPrincipal Usuario usuario) {
+    public ResponseEntity<List<ValorCampoResponse>> getEntryValues(@PathVariable Long entryId, @AuthenticationPrincipal Usuario usuario) {
         if (usuario == null) {
             return ResponseEntity.status(401).build();
         }
-        // Verificar que la entrada pertenece al usuario
-        EntradaDiaria entrada = dailyEntryService.findEntradaById(entryId);
-        if (entrada == null || !entrada.getUsuario().getId().equals(usuario.getId())) {
-            return ResponseEntity.notFound().build();
+        // Solo devuelve valores si la entrada pertenece al usuario
+        return dailyEntryService.getValoresByEntrada(usuario.getId(), entryId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping("/draft")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> saveDraft(@RequestBody DailyEntryRequest request, @AuthenticationPrincipal Usuario usuario) {
+        if (usuario == null) {
+            return ResponseEntity.status(401).body("No autenticado");
+        }
+        LocalDate fecha = request.getFecha() != null ? LocalDate.parse(request.getFecha()) : LocalDate.now();
+        List<DailyEntryRequest.CampoValor> valores = request.getValoresCampo() != null ? request.getValoresCampo() : List.of();
+        try {
+            draftBufferService.bufferDraft(usuario, fecha, valores);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Borrador rechazado para usuario {}: {}", usuario.getEmail(), e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        List<ValoresCampo> valores = dailyEntryService.getValoresByEntrada(entryId);
-        return ResponseEntity.ok(valores);
     }
 
     @PostMapping("/save")
@@ -143,115 +167,14 @@ public class DailyEntryController {
         LocalDate fecha = request.getFecha() != null ? LocalDate.parse(request.getFecha()) : LocalDate.now();
         logger.info("Procesando guardado para usuario {} en fecha {}", usuario.getEmail(), fecha);
 
+        List<DailyEntryRequest.CampoValor> valores = request.getValoresCampo() != null ? request.getValoresCampo() : List.of();
         try {
-            // Obtener DiaMaestro para la fecha actual
-            int anio = fecha.getYear();
-            int mes = fecha.getMonthValue();
-            int dia = fecha.getDayOfMonth();
-
-            Optional<DiarioAnual> diarioOpt = diarioAnualRepository.findByAnio(anio);
-            if (diarioOpt.isEmpty()) {
-                logger.warn("Diario anual no encontrado para el año {}", anio);
-                return ResponseEntity.badRequest().body("Diario anual no encontrado para el año " + anio);
-            }
-            DiarioAnual diario = diarioOpt.get();
-            logger.info("Diario encontrado: {} (id: {})", diario.getTitulo(), diario.getId());
-
-            Optional<MesMaestro> mesOpt = mesMaestroRepository.findByDiarioAnualIdAndMesNumero(diario.getId(), mes);
-            if (mesOpt.isEmpty()) {
-                logger.warn("Mes maestro no encontrado para diario {} mes {}", diario.getId(), mes);
-                return ResponseEntity.badRequest().body("Mes maestro no encontrado para el mes " + mes);
-            }
-            MesMaestro mesMaestro = mesOpt.get();
-            logger.info("MesMaestro encontrado: id {}", mesMaestro.getId());
-
-            Optional<DiaMaestro> diaOpt = diaMaestroRepository.findByMesMaestroIdAndDiaNumero(mesMaestro.getId(), dia);
-            if (diaOpt.isEmpty()) {
-                logger.warn("Dia maestro no encontrado para mesMaestro {} dia {}", mesMaestro.getId(), dia);
-                return ResponseEntity.badRequest().body("Dia maestro no encontrado para el día " + dia);
-            }
-            DiaMaestro diaMaestro = diaOpt.get();
-            logger.info("DiaMaestro encontrado: id {}", diaMaestro.getId());
-
-            // Verificar si ya existe una entrada para este usuario y diaMaestro
-            logger.info("Validando existencia de EntradaDiaria: usuario={}, diaMaestro={}", usuario.getEmail(), diaMaestro.getId());
-            Optional<EntradaDiaria> existingEntrada = entradaDiariaRepository.findByUsuarioAndDiaMaestro(usuario, diaMaestro);
-            logger.info("Resultado de validación: entrada existente={}", existingEntrada.isPresent() ? "sí (id: " + existingEntrada.get().getId() + ")" : "no");
-
-            EntradaDiaria entrada;
-
-            if (existingEntrada.isPresent()) {
-                logger.info("EntradaDiaria ya existe para usuario {} y diaMaestro {}, actualizando", usuario.getEmail(), diaMaestro.getId());
-                entrada = existingEntrada.get();
-            } else {
-                logger.info("Creando nueva EntradaDiaria para usuario {} y diaMaestro {}", usuario.getEmail(), diaMaestro.getId());
-                entrada = new EntradaDiaria();
-                entrada.setUsuario(usuario);
-                entrada.setFechaEntrada(fecha);
-                entrada.setDiario(diaMaestro.getMesMaestro().getDiarioAnual());
-                entrada.setDiaMaestro(diaMaestro);
-                logger.info("DiaMaestro asignado con id: {}", diaMaestro.getId());
-            }
-
-            entrada.setEstadoLlenado(BigDecimal.valueOf(100.0)); // Calcular basado en campos
-            entrada.setCompletado(true);
-
-            logger.info("Guardando EntradaDiaria en tabla entrada_diaria");
-            EntradaDiaria savedEntrada = dailyEntryService.saveEntradaDiaria(entrada);
-            logger.info("EntradaDiaria guardada/actualizada con id: {}", savedEntrada.getId());
-
-            // Actualizar ValoresCampo de manera eficiente
-            logger.info("Actualizando {} ValoresCampo para entrada {}", request.getValoresCampo().size(), savedEntrada.getId());
-            List<ValoresCampo> existingValores = valoresCampoRepository.findByEntradaDiariaId(savedEntrada.getId());
-            logger.info("Encontrados {} ValoresCampo existentes", existingValores.size());
-
-            // Mapa de existentes por campoDiarioId
-            Map<Long, ValoresCampo> existingMap = new HashMap<>();
-            for (ValoresCampo vc : existingValores) {
-                existingMap.put(vc.getCamposDiario().getId(), vc);
-            }
-
-            // Procesar cada campo del request
-            for (DailyEntryRequest.CampoValor cv : request.getValoresCampo()) {
-                logger.info("Procesando CampoValor: campoDiarioId={}, valorTexto={}, valorAudioUrl={}",
-                    cv.getCampoDiarioId(), cv.getValorTexto(), cv.getValorAudioUrl());
-                ValoresCampo vc = existingMap.get(cv.getCampoDiarioId());
-                if (vc != null) {
-                    // Actualizar existente
-                    logger.info("Actualizando ValoresCampo existente id: {}", vc.getId());
-                    vc.setValorTexto(cv.getValorTexto());
-                    vc.setValorAudioUrl(cv.getValorAudioUrl());
-                    dailyEntryService.saveValoresCampo(vc);
-                    existingMap.remove(cv.getCampoDiarioId()); // Remover del mapa para no eliminar después
-                } else {
-                    // Crear nuevo
-                    logger.info("Creando nuevo ValoresCampo para campoDiarioId: {}", cv.getCampoDiarioId());
-                    vc = new ValoresCampo();
-                    vc.setEntradaDiaria(savedEntrada);
-                    Optional<CamposDiario> campoOpt = camposDiarioRepository.findById(cv.getCampoDiarioId());
-                    if (campoOpt.isPresent()) {
-                        vc.setCamposDiario(campoOpt.get());
-                        logger.info("CampoDiario encontrado: {} (id: {})", campoOpt.get().getNombreCampo(), campoOpt.get().getId());
-                    } else {
-                        logger.warn("Campo diario no encontrado: {}", cv.getCampoDiarioId());
-                        return ResponseEntity.badRequest().body("Campo diario no encontrado: " + cv.getCampoDiarioId());
-                    }
-                    vc.setValorTexto(cv.getValorTexto());
-                    vc.setValorAudioUrl(cv.getValorAudioUrl());
-                    ValoresCampo savedVc = dailyEntryService.saveValoresCampo(vc);
-                    logger.info("ValoresCampo creado con id: {}", savedVc.getId());
-                }
-            }
-
-            // Eliminar los existentes que ya no están en el request
-            for (ValoresCampo vc : existingMap.values()) {
-                logger.info("Eliminando ValoresCampo obsoleto id: {}", vc.getId());
-                valoresCampoRepository.delete(vc);
-            }
-
-            logger.info("saveEntry completado exitosamente para usuario {}", usuario.getEmail());
+            Long entradaId = draftBufferService.guardarEntrada(usuario, fecha, valores);
+            logger.info("saveEntry completado exitosamente para usuario {} (entrada {})", usuario.getEmail(), entradaId);
             return ResponseEntity.ok().build();
-
+        } catch (IllegalArgumentException e) {
+            logger.warn("Entrada diaria rechazada para usuario {}: {}", usuario.getEmail(), e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error al guardar entrada diaria para usuario {}: {}", usuario.getEmail(), e.getMessage(), e);
             return ResponseEntity.status(500).body("Error interno del servidor al guardar la entrada diaria");
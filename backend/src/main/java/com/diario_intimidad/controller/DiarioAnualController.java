@@ -2,6 +2,7 @@ package com.diario_intimidad.controller;
 
 import com.diario_intimidad.entity.DiarioAnual;
 import com.diario_intimidad.service.DiarioAnualService;
+import com.diario_intimidad.service.MediaStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,14 +11,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.InputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/diarios-anuales")
@@ -32,6 +31,9 @@ public class DiarioAnualController {
     @Autowired
     private DiarioAnualService diarioAnualService;
 
+    @Autowired
+    private MediaStore mediaStore;
+
     @GetMapping
     public List<DiarioAnual> getAllDiariosAnuales() {
         return diarioAnualService.findAll();
@@ -95,31 +97,9 @@ public class DiarioAnualController {
             // Confirmar que se guardó correctamente
             logger.info("Updated diario saved with id {} and status {}", saved.getId(), saved.getStatus());
 
-            // Validar que las imágenes existen en el filesystem
-            try {
-                List<Path> files = Files.list(Paths.get(uploadDir, "images")).filter(Files::isRegularFile).collect(Collectors.toList());
-                logger.info("Files in images directory after update: {}", files.stream().map(Path::getFileName).collect(Collectors.toList()));
-            } catch (Exception e) {
-                logger.error("Error listing files after update", e);
-            }
-            if (saved.getNombrePortada() != null) {
-                Path imagePath = Paths.get(uploadDir, "images", saved.getNombrePortada());
-                try {
-                    long size = Files.size(imagePath);
-                    logger.info("Validating portada image: {} -> size={} bytes", imagePath.toAbsolutePath(), size);
-                } catch (Exception e) {
-                    logger.error("Error validating portada image: {}", imagePath.toAbsolutePath(), e);
-                }
-            }
-            if (saved.getNombreLogo() != null) {
-                Path imagePath = Paths.get(uploadDir, "images", saved.getNombreLogo());
-                try {
-                    long size = Files.size(imagePath);
-                    logger.info("Validating logo image: {} -> size={} bytes", imagePath.toAbsolutePath(), size);
-                } catch (Exception e) {
-                    logger.error("Error validating logo image: {}", imagePath.toAbsolutePath(), e);
-                }
-            }
+            // Validar que las imágenes existen, con el índice del almacén y sin listar el directorio
+            logImage("portada", saved.getNombrePortada());
+            logImage("logo", saved.getNombreLogo());
 
             return ResponseEntity.ok(saved);
         } else {
@@ -133,38 +113,53 @@ public class DiarioAnualController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Guarda la imagen por contenido y devuelve su nombre relativo a {@code /uploads/images/}
+     * ({@code media/<sha256>.<ext>}); subir dos veces la misma imagen devuelve el mismo nombre.
+     * Cualquier contenido que no sea JPEG, PNG, GIF o WebP se rechaza con 400.
+     */
     @PostMapping("/upload")
     public ResponseEntity<String> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            logger.info("Upload request received. Upload dir: {}", uploadDir);
             if (file.isEmpty()) {
                 logger.warn("File is empty");
                 return ResponseEntity.badRequest().body("Archivo vacío");
             }
-            String originalFilename = file.getOriginalFilename();
-            logger.info("Original filename: {}", originalFilename);
-            String fileName = originalFilename != null ? originalFilename : "unnamed.jpg";
-            Path uploadDirPath = Paths.get(uploadDir, "images");
-            logger.info("Upload directory path: {}", uploadDirPath.toAbsolutePath());
-            Files.createDirectories(uploadDirPath);
-            logger.info("Directories created: {}", Files.exists(uploadDirPath));
-            Path filePath = uploadDirPath.resolve(fileName);
-            logger.info("File path: {}", filePath.toAbsolutePath());
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            try {
-                long size = Files.size(filePath);
-                logger.info("File copied successfully. Size: {} bytes", size);
-                List<Path> files = Files.list(Paths.get(uploadDir, "images")).filter(Files::isRegularFile).collect(Collectors.toList());
-                logger.info("Files in images directory after upload: {}", files.stream().map(Path::getFileName).collect(Collectors.toList()));
-            } catch (Exception e) {
-                logger.error("Error validating file after upload", e);
+            MediaStore.MediaEntry entry;
+            try (InputStream in = file.getInputStream()) {
+                entry = mediaStore.store(in);
             }
-            logger.info("Returning filename: {}", fileName);
-            return ResponseEntity.ok(fileName);
+            logger.info("Uploaded {} as {} ({} bytes, deduplicated: {})",
+                    file.getOriginalFilename(), entry.name(), entry.size(), entry.deduplicated());
+            return ResponseEntity.ok(entry.name());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected upload {}: {}", file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error uploading file", e);
             return ResponseEntity.internalServerError().body("Error al subir el archivo");
         }
     }
 
-}
\ No newline at end of file
+    @GetMapping("/media/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMediaStats() {
+        return ResponseEntity.ok(mediaStore.getStats());
+    }
+
+    // Las imágenes anteriores al almacén por contenido siguen en images/ con su nombre original
+    private void logImage(String tipo, String nombre) {
+        if (nombre == null) {
+            return;
+        }
+        Optional<MediaStore.MediaEntry> entry = mediaStore.find(nombre);
+        if (entry.isPresent()) {
+            logger.info("Validating {} image: {} -> size={} bytes", tipo, nombre, entry.get().size());
+        } else if (Files.isRegularFile(Paths.get(uploadDir, "images", nombre))) {
+            logger.info("Validating {} image: {} -> legacy file", tipo, nombre);
+        } else {
+            logger.error("Missing {} image: {}", tipo, nombre);
+        }
+    }
+
+}
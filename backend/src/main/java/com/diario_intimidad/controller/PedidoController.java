@@ -96,8 +96,6 @@ public class PedidoController {
     @GetMapping("/usuario/{usuarioId}")
     public List<Pedido> getPedidosByUsuario(@PathVariable Long usuarioId) {
         // Obtener pedidos confirmados del usuario
-        return pedidoService.findByEstado("CONFIRMADO").stream()
-                .filter(p -> p.getUsuario() != null && p.getUsuario().getId().equals(usuarioId))
-                .toList();
+        return pedidoService.findByUsuarioIdAndEstado(usuarioId, "CONFIRMADO");
     }
 }
\ No newline at end of file
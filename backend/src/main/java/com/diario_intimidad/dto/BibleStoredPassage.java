@@ -0,0 +1,10 @@
+package com.diario_intimidad.dto;
+
+import java.util.List;
+
+/**
+ * Una fila de bible_verse_cache tal como se exporta e importa (una línea NDJSON por pasaje).
+ */
+public record BibleStoredPassage(String translation, String bookCode, int chapter, int verseStart, int verseEnd,
+                                 List<BibleVerse> verses) {
+}
@@ -0,0 +1,7 @@
+package com.diario_intimidad.dto;
+
+/**
+ * Versículo con su número dentro del capítulo; número 0 cuando el capítulo se guardó como un único bloque sin numerar.
+ */
+public record BibleVerse(int number, String text) {
+}
@@ -0,0 +1,19 @@
+package com.diario_intimidad.dto;
+
+import java.util.List;
+
+public class BibleVersesRequest {
+    private List<String> references;
+    private String translation;
+    private Boolean includeNumbers;
+
+    // Getters and setters
+    public List<String> getReferences() { return references; }
+    public void setReferences(List<String> references) { this.references = references; }
+
+    public String getTranslation() { return translation; }
+    public void setTranslation(String translation) { this.translation = translation; }
+
+    public Boolean getIncludeNumbers() { return includeNumbers; }
+    public void setIncludeNumbers(Boolean includeNumbers) { this.includeNumbers = includeNumbers; }
+}
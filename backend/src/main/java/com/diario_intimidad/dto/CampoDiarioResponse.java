@@ -0,0 +1,4 @@
+package com.diario_intimidad.dto;
+
+public record CampoDiarioResponse(Long id, String nombreCampo, String tipoEntrada, Integer orden, Boolean esRequerido) {
+}
@@ -0,0 +1,44 @@
+package com.diario_intimidad.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DiaCalendarioResponse {
+    private LocalDate fecha;
+    private Integer diaNumero;
+    private Long diaMaestroId;
+    private String tipoDia;
+    private String lecturaBiblica;
+    private String versiculoDiario;
+    private Long entradaId;
+    private Boolean completado = false;
+    private BigDecimal estadoLlenado = BigDecimal.ZERO;
+
+    // Getters and setters
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public Integer getDiaNumero() { return diaNumero; }
+    public void setDiaNumero(Integer diaNumero) { this.diaNumero = diaNumero; }
+
+    public Long getDiaMaestroId() { return diaMaestroId; }
+    public void setDiaMaestroId(Long diaMaestroId) { this.diaMaestroId = diaMaestroId; }
+
+    public String getTipoDia() { return tipoDia; }
+    public void setTipoDia(String tipoDia) { this.tipoDia = tipoDia; }
+
+    public String getLecturaBiblica() { return lecturaBiblica; }
+    public void setLecturaBiblica(String lecturaBiblica) { this.lecturaBiblica = lecturaBiblica; }
+
+    public String getVersiculoDiario() { return versiculoDiario; }
+    public void setVersiculoDiario(String versiculoDiario) { this.versiculoDiario = versiculoDiario; }
+
+    public Long getEntradaId() { return entradaId; }
+    public void setEntradaId(Long entradaId) { this.entradaId = entradaId; }
+
+    public Boolean getCompletado() { return completado; }
+    public void setCompletado(Boolean completado) { this.completado = completado; }
+
+    public BigDecimal getEstadoLlenado() { return estadoLlenado; }
+    public void setEstadoLlenado(BigDecimal estadoLlenado) { this.estadoLlenado = estadoLlenado; }
+}
@@ -0,0 +1,7 @@
+package com.diario_intimidad.dto;
+
+/**
+ * Datos del diario anual que muestra la entrada diaria, sin meses ni auditoría.
+ */
+public record DiarioResumen(Long id, Integer anio, String titulo, String nombreLogo, String nombrePortada) {
+}
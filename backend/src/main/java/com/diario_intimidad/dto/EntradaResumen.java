@@ -0,0 +1,11 @@
+package com.diario_intimidad.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entrada diaria con solo los datos de estado que necesitan el calendario y /user-entries.
+ */
+public record EntradaResumen(Long id, Long diaMaestroId, LocalDate fechaEntrada, Boolean completado,
+                             BigDecimal estadoLlenado) {
+}
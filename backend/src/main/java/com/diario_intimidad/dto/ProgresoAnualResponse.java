@@ -0,0 +1,40 @@
+package com.diario_intimidad.dto;
+
+import java.time.LocalDate;
+
+public class ProgresoAnualResponse {
+    private Integer anio;
+    private Long diarioId;
+    private Integer diasDelAnio;
+    // Bitmap de días completados (bit = día del año - 1); Jackson lo serializa en Base64
+    private byte[] diasCompletados;
+    private Integer totalCompletados = 0;
+    private Integer rachaActual = 0;
+    private Integer rachaMaxima = 0;
+    private LocalDate ultimaFechaCompletada;
+
+    // Getters and setters
+    public Integer getAnio() { return anio; }
+    public void setAnio(Integer anio) { this.anio = anio; }
+
+    public Long getDiarioId() { return diarioId; }
+    public void setDiarioId(Long diarioId) { this.diarioId = diarioId; }
+
+    public Integer getDiasDelAnio() { return diasDelAnio; }
+    public void setDiasDelAnio(Integer diasDelAnio) { this.diasDelAnio = diasDelAnio; }
+
+    public byte[] getDiasCompletados() { return diasCompletados; }
+    public void setDiasCompletados(byte[] diasCompletados) { this.diasCompletados = diasCompletados; }
+
+    public Integer getTotalCompletados() { return totalCompletados; }
+    public void setTotalCompletados(Integer totalCompletados) { this.totalCompletados = totalCompletados; }
+
+    public Integer getRachaActual() { return rachaActual; }
+    public void setRachaActual(Integer rachaActual) { this.rachaActual = rachaActual; }
+
+    public Integer getRachaMaxima() { return rachaMaxima; }
+    public void setRachaMaxima(Integer rachaMaxima) { this.rachaMaxima = rachaMaxima; }
+
+    public LocalDate getUltimaFechaCompletada() { return ultimaFechaCompletada; }
+    public void setUltimaFechaCompletada(LocalDate ultimaFechaCompletada) { this.ultimaFechaCompletada = ultimaFechaCompletada; }
+}
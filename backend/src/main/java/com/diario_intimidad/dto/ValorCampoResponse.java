@@ -0,0 +1,7 @@
+package com.diario_intimidad.dto;
+
+/**
+ * Valor guardado para un campo; el campo se referencia solo por id.
+ */
+public record ValorCampoResponse(Long id, Long campoDiarioId, String valorTexto, String valorAudioUrl) {
+}
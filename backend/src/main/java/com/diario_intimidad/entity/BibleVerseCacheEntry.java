@@ -0,0 +1,66 @@
+package com.diario_intimidad.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pasaje bíblico obtenido de la API remota y guardado como segundo nivel de la caché de versículos.
+ * Se lee y escribe con {@code BibleVerseStoreRepository}; la entidad existe para que Hibernate cree la tabla.
+ */
+@Entity
+@Table(name = "bible_verse_cache", uniqueConstraints = @UniqueConstraint(
+        columnNames = {"translation", "book_code", "chapter", "verse_start", "verse_end"}))
+public class BibleVerseCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "translation", nullable = false, length = 20)
+    private String translation;
+
+    @Column(name = "book_code", nullable = false, length = 40)
+    private String bookCode;
+
+    @Column(name = "chapter", nullable = false)
+    private Integer chapter;
+
+    @Column(name = "verse_start", nullable = false)
+    private Integer verseStart;
+
+    @Column(name = "verse_end", nullable = false)
+    private Integer verseEnd;
+
+    // Versículos como JSON: [{"number":16,"text":"..."}]
+    @Column(name = "verses", nullable = false, columnDefinition = "text")
+    private String verses;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTranslation() { return translation; }
+    public void setTranslation(String translation) { this.translation = translation; }
+
+    public String getBookCode() { return bookCode; }
+    public void setBookCode(String bookCode) { this.bookCode = bookCode; }
+
+    public Integer getChapter() { return chapter; }
+    public void setChapter(Integer chapter) { this.chapter = chapter; }
+
+    public Integer getVerseStart() { return verseStart; }
+    public void setVerseStart(Integer verseStart) { this.verseStart = verseStart; }
+
+    public Integer getVerseEnd() { return verseEnd; }
+    public void setVerseEnd(Integer verseEnd) { this.verseEnd = verseEnd; }
+
+    public String getVerses() { return verses; }
+    public void setVerses(String verses) { this.verses = verses; }
+
+    public LocalDateTime getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(LocalDateTime fetchedAt) { this.fetchedAt = fetchedAt; }
+}
@@ -1,7 +1,9 @@
 package com.diario_intimidad.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
 @Table(name = "campos_diario")
 public class CamposDiario {
@@ -22,7 +24,7 @@ public class CamposDiario {
     @Column(name = "es_requerido")
     private Boolean esRequerido = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diario_id")
     private DiarioAnual diarioAnual;
 
@@ -1,8 +1,13 @@
 package com.diario_intimidad.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
+@NamedEntityGraph(name = "DiaMaestro.conMes",
+        attributeNodes = @NamedAttributeNode(value = "mesMaestro", subgraph = "mesMaestro"),
+        subgraphs = @NamedSubgraph(name = "mesMaestro", attributeNodes = @NamedAttributeNode("diarioAnual")))
 @Table(name = "dia_maestro")
 public class DiaMaestro {
 
@@ -10,7 +15,7 @@ public class DiaMaestro {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "mes_id")
     private MesMaestro mesMaestro;
 
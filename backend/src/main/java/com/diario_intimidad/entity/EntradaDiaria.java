@@ -1,26 +1,38 @@
 package com.diario_intimidad.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
-@Table(name = "entrada_diaria")
+@NamedEntityGraph(name = "EntradaDiaria.detalle",
+        attributeNodes = {
+                @NamedAttributeNode("usuario"),
+                @NamedAttributeNode("diario"),
+                @NamedAttributeNode(value = "diaMaestro", subgraph = "diaMaestro")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "diaMaestro", attributeNodes = @NamedAttributeNode(value = "mesMaestro", subgraph = "mesMaestro")),
+                @NamedSubgraph(name = "mesMaestro", attributeNodes = @NamedAttributeNode("diarioAnual"))
+        })
+@Table(name = "entrada_diaria", uniqueConstraints = @UniqueConstraint(columnNames = {"usuario_id", "dia_maestro_id"}))
 public class EntradaDiaria {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id")
     private Usuario usuario;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diario_id")
     private DiarioAnual diario;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "dia_maestro_id")
     private DiaMaestro diaMaestro;
 
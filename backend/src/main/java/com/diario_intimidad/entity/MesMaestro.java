@@ -1,8 +1,11 @@
 package com.diario_intimidad.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
+@NamedEntityGraph(name = "MesMaestro.conDiario", attributeNodes = @NamedAttributeNode("diarioAnual"))
 @Table(name = "mes_maestro")
 public class MesMaestro {
 
@@ -10,7 +13,7 @@ public class MesMaestro {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diario_id")
     private DiarioAnual diarioAnual;
 
@@ -7,6 +7,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = "Pedido.detalle", attributeNodes = {
+        @NamedAttributeNode("diarioAnual"),
+        @NamedAttributeNode("usuario")
+})
 @Table(name = "pedido")
 public class Pedido {
 
@@ -14,7 +18,7 @@ public class Pedido {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diario_id", nullable = false)
     private DiarioAnual diarioAnual;
 
@@ -27,7 +31,7 @@ public class Pedido {
 
     private String tokenValidacion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id")
     private Usuario usuario; // Asignado después de confirmación
 
@@ -0,0 +1,69 @@
+package com.diario_intimidad.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "progreso_anual", uniqueConstraints = @UniqueConstraint(columnNames = {"usuario_id", "diario_id"}))
+public class ProgresoAnual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id")
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "diario_id")
+    private DiarioAnual diario;
+
+    // Bit (díaDelAño - 1) a 1 si ese día está completado; 46 bytes cubren 366 días
+    @Column(name = "dias_completados", nullable = false)
+    private byte[] diasCompletados;
+
+    @Column(name = "total_completados", nullable = false)
+    private Integer totalCompletados = 0;
+
+    @Column(name = "racha_actual", nullable = false)
+    private Integer rachaActual = 0;
+
+    @Column(name = "racha_maxima", nullable = false)
+    private Integer rachaMaxima = 0;
+
+    @Column(name = "ultima_fecha_completada")
+    private LocalDate ultimaFechaCompletada;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Usuario getUsuario() { return usuario; }
+    public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+
+    public DiarioAnual getDiario() { return diario; }
+    public void setDiario(DiarioAnual diario) { this.diario = diario; }
+
+    public byte[] getDiasCompletados() { return diasCompletados; }
+    public void setDiasCompletados(byte[] diasCompletados) { this.diasCompletados = diasCompletados; }
+
+    public Integer getTotalCompletados() { return totalCompletados; }
+    public void setTotalCompletados(Integer totalCompletados) { this.totalCompletados = totalCompletados; }
+
+    public Integer getRachaActual() { return rachaActual; }
+    public void setRachaActual(Integer rachaActual) { this.rachaActual = rachaActual; }
+
+    public Integer getRachaMaxima() { return rachaMaxima; }
+    public void setRachaMaxima(Integer rachaMaxima) { this.rachaMaxima = rachaMaxima; }
+
+    public LocalDate getUltimaFechaCompletada() { return ultimaFechaCompletada; }
+    public void setUltimaFechaCompletada(LocalDate ultimaFechaCompletada) { this.ultimaFechaCompletada = ultimaFechaCompletada; }
+
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
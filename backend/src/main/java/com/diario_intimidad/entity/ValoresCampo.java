@@ -3,18 +3,19 @@ package com.diario_intimidad.entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "valores_campo")
+@NamedEntityGraph(name = "ValoresCampo.conCampo", attributeNodes = @NamedAttributeNode("camposDiario"))
+@Table(name = "valores_campo", uniqueConstraints = @UniqueConstraint(columnNames = {"entrada_diaria_id", "campo_diario_id"}))
 public class ValoresCampo {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "entrada_diaria_id")
     private EntradaDiaria entradaDiaria;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "campo_diario_id")
     private CamposDiario camposDiario;
 
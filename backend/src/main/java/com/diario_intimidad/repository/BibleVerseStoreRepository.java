@@ -0,0 +1,115 @@
+package com.diario_intimidad.repository;
+
+import com.diario_intimidad.dto.BibleStoredPassage;
+import com.diario_intimidad.dto.BibleVerse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Acceso JDBC a bible_verse_cache: lectura por pasaje, upserts en bloque y recorrido completo para exportar.
+ * Los versículos se guardan como JSON en una columna de texto.
+ */
+@Repository
+public class BibleVerseStoreRepository {
+
+    private static final TypeReference<List<BibleVerse>> VERSES = new TypeReference<>() {
+    };
+
+    private static final String FIND =
+            "SELECT verses FROM bible_verse_cache WHERE translation = :translation AND book_code = :bookCode " +
+            "AND chapter = :chapter AND verse_start = :verseStart AND verse_end = :verseEnd";
+
+    private static final String UPSERT =
+            "INSERT INTO bible_verse_cache (translation, book_code, chapter, verse_start, verse_end, verses, fetched_at) " +
+            "VALUES (:translation, :bookCode, :chapter, :verseStart, :verseEnd, :verses, :fetchedAt) " +
+            "ON CONFLICT (translation, book_code, chapter, verse_start, verse_end) DO UPDATE " +
+            "SET verses = EXCLUDED.verses, fetched_at = EXCLUDED.fetched_at";
+
+    private static final String SELECT_ALL =
+            "SELECT translation, book_code, chapter, verse_start, verse_end, verses FROM bible_verse_cache " +
+            "ORDER BY translation, book_code, chapter, verse_start, verse_end";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Optional<List<BibleVerse>> find(String translation, String bookCode, int chapter, int verseStart, int verseEnd) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("translation", translation)
+                .addValue("bookCode", bookCode)
+                .addValue("chapter", chapter)
+                .addValue("verseStart", verseStart)
+                .addValue("verseEnd", verseEnd);
+        List<String> rows = jdbcTemplate.queryForList(FIND, params, String.class);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(readVerses(rows.get(0)));
+    }
+
+    /**
+     * Inserta o reemplaza todos los pasajes en un único batch de INSERT ... ON CONFLICT.
+     */
+    public void upsertAll(Collection<BibleStoredPassage> passages) {
+        if (passages.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        SqlParameterSource[] batch = new SqlParameterSource[passages.size()];
+        int i = 0;
+        for (BibleStoredPassage passage : passages) {
+            batch[i++] = new MapSqlParameterSource()
+                    .addValue("translation", passage.translation())
+                    .addValue("bookCode", passage.bookCode())
+                    .addValue("chapter", passage.chapter())
+                    .addValue("verseStart", passage.verseStart())
+                    .addValue("verseEnd", passage.verseEnd())
+                    .addValue("verses", writeVerses(passage.verses()))
+                    .addValue("fetchedAt", now);
+        }
+        jdbcTemplate.batchUpdate(UPSERT, batch);
+    }
+
+    /**
+     * Todos los pasajes en orden; el llamador debe cerrar el stream para liberar la conexión.
+     */
+    public Stream<BibleStoredPassage> streamAll() {
+        RowMapper<BibleStoredPassage> mapper = (rs, row) -> new BibleStoredPassage(
+                rs.getString("translation"), rs.getString("book_code"), rs.getInt("chapter"),
+                rs.getInt("verse_start"), rs.getInt("verse_end"), readVerses(rs.getString("verses")));
+        return jdbcTemplate.queryForStream(SELECT_ALL, new MapSqlParameterSource(), mapper);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bible_verse_cache", new MapSqlParameterSource(), Long.class);
+        return count != null ? count : 0;
+    }
+
+    private List<BibleVerse> readVerses(String json) {
+        try {
+            return objectMapper.readValue(json, VERSES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON de versículos no válido en bible_verse_cache", e);
+        }
+    }
+
+    private String writeVerses(List<BibleVerse> verses) {
+        try {
+            return objectMapper.writeValueAsString(verses);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron serializar los versículos", e);
+        }
+    }
+}
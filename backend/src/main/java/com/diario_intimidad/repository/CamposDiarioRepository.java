@@ -9,4 +9,4 @@ import java.util.List;
 @Repository
 public interface CamposDiarioRepository extends JpaRepository<CamposDiario, Long> {
     List<CamposDiario> findByDiarioAnualIdOrderByOrdenAsc(Long diarioAnualId);
-}
\ No newline at end of file
+}
@@ -1,7 +1,9 @@
 package com.diario_intimidad.repository;
 
 import com.diario_intimidad.entity.DiaMaestro;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +11,19 @@ import java.util.Optional;
 
 @Repository
 public interface DiaMaestroRepository extends JpaRepository<DiaMaestro, Long> {
+    @Override
+    @EntityGraph("DiaMaestro.conMes")
+    List<DiaMaestro> findAll();
+
+    @Override
+    @EntityGraph("DiaMaestro.conMes")
+    Optional<DiaMaestro> findById(Long id);
+
+    @EntityGraph("DiaMaestro.conMes")
     Optional<DiaMaestro> findByMesMaestroIdAndDiaNumero(Long mesMaestroId, Integer diaNumero);
+    @EntityGraph("DiaMaestro.conMes")
     List<DiaMaestro> findByMesMaestro_DiarioAnual_Id(Long diarioId);
+
+    @Query("select d from DiaMaestro d join fetch d.mesMaestro m join fetch m.diarioAnual")
+    List<DiaMaestro> findAllWithMesMaestro();
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.diario_intimidad.repository;
+
+import com.diario_intimidad.dto.DailyEntryRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Escrituras en bloque de entrada_diaria / valores_campo con upserts de PostgreSQL.
+ * Se ejecutan con la conexión de la transacción JPA en curso.
+ */
+@Repository
+public class EntradaDiariaBatchRepository {
+
+    private static final String UPSERT_ENTRADA =
+            "INSERT INTO entrada_diaria (usuario_id, diario_id, dia_maestro_id, fecha_entrada, estado_llenado, completado) " +
+            "VALUES (:usuarioId, :diarioId, :diaMaestroId, :fechaEntrada, :estadoLlenado, :completado) " +
+            "ON CONFLICT (usuario_id, dia_maestro_id) DO UPDATE " +
+            "SET estado_llenado = EXCLUDED.estado_llenado, completado = EXCLUDED.completado " +
+            "RETURNING id";
+
+    // Crea la entrada si no existe sin tocar el estado de una ya guardada
+    private static final String ENSURE_ENTRADA =
+            "INSERT INTO entrada_diaria (usuario_id, diario_id, dia_maestro_id, fecha_entrada, estado_llenado, completado) " +
+            "VALUES (:usuarioId, :diarioId, :diaMaestroId, :fechaEntrada, 0, false) " +
+            "ON CONFLICT (usuario_id, dia_maestro_id) DO UPDATE SET completado = entrada_diaria.completado " +
+            "RETURNING id";
+
+    private static final String UPSERT_VALOR =
+            "INSERT INTO valores_campo (entrada_diaria_id, campo_diario_id, valor_texto, valor_audio_url) " +
+            "VALUES (:entradaId, :campoDiarioId, :valorTexto, :valorAudioUrl) " +
+            "ON CONFLICT (entrada_diaria_id, campo_diario_id) DO UPDATE " +
+            "SET valor_texto = EXCLUDED.valor_texto, valor_audio_url = EXCLUDED.valor_audio_url";
+
+    private static final String DELETE_VALORES_EXCEPT =
+            "DELETE FROM valores_campo WHERE entrada_diaria_id = :entradaId AND campo_diario_id NOT IN (:campoIds)";
+
+    private static final String DELETE_VALORES =
+            "DELETE FROM valores_campo WHERE entrada_diaria_id = :entradaId";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta o actualiza la entrada del usuario para el día y devuelve su id.
+     */
+    public Long upsertEntrada(Long usuarioId, Long diarioId, Long diaMaestroId, LocalDate fechaEntrada,
+                              BigDecimal estadoLlenado, boolean completado) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usuarioId", usuarioId)
+                .addValue("diarioId", diarioId)
+                .addValue("diaMaestroId", diaMaestroId)
+                .addValue("fechaEntrada", fechaEntrada)
+                .addValue("estadoLlenado", estadoLlenado)
+                .addValue("completado", completado);
+        return jdbcTemplate.queryForObject(UPSERT_ENTRADA, params, Long.class);
+    }
+
+    /**
+     * Devuelve el id de la entrada del usuario para el día, creándola vacía si todavía no existe.
+     */
+    public Long ensureEntrada(Long usuarioId, Long diarioId, Long diaMaestroId, LocalDate fechaEntrada) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usuarioId", usuarioId)
+                .addValue("diarioId", diarioId)
+                .addValue("diaMaestroId", diaMaestroId)
+                .addValue("fechaEntrada", fechaEntrada);
+        return jdbcTemplate.queryForObject(ENSURE_ENTRADA, params, Long.class);
+    }
+
+    /**
+     * Escribe todos los valores en un único batch de INSERT ... ON CONFLICT.
+     */
+    public void upsertValores(Long entradaId, List<DailyEntryRequest.CampoValor> valores) {
+        if (valores.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = new SqlParameterSource[valores.size()];
+        for (int i = 0; i < valores.size(); i++) {
+            DailyEntryRequest.CampoValor cv = valores.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("entradaId", entradaId)
+                    .addValue("campoDiarioId", cv.getCampoDiarioId())
+                    .addValue("valorTexto", cv.getValorTexto())
+                    .addValue("valorAudioUrl", cv.getValorAudioUrl());
+        }
+        jdbcTemplate.batchUpdate(UPSERT_VALOR, batch);
+    }
+
+    /**
+     * Elimina en una sola sentencia los valores de la entrada cuyos campos no están en {@code campoIds}.
+     */
+    public int deleteValoresExcept(Long entradaId, Collection<Long> campoIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("entradaId", entradaId);
+        if (campoIds.isEmpty()) {
+            return jdbcTemplate.update(DELETE_VALORES, params);
+        }
+        return jdbcTemplate.update(DELETE_VALORES_EXCEPT, params.addValue("campoIds", campoIds));
+    }
+}
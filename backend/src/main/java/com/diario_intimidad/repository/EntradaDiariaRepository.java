@@ -1,9 +1,13 @@
 package com.diario_intimidad.repository;
 
+import com.diario_intimidad.dto.EntradaResumen;
 import com.diario_intimidad.entity.DiaMaestro;
 import com.diario_intimidad.entity.EntradaDiaria;
 import com.diario_intimidad.entity.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
@@ -12,12 +16,39 @@ import java.util.Optional;
 @Repository
 public interface EntradaDiariaRepository extends JpaRepository<EntradaDiaria, Long> {
 
+    // Las entradas completas se sirven como JSON con usuario, diario y día; se cargan en la misma consulta
+    @Override
+    @EntityGraph("EntradaDiaria.detalle")
+    List<EntradaDiaria> findAll();
+
+    @Override
+    @EntityGraph("EntradaDiaria.detalle")
+    Optional<EntradaDiaria> findById(Long id);
+
+    @EntityGraph("EntradaDiaria.detalle")
     List<EntradaDiaria> findByUsuarioIdAndDiarioId(Long usuarioId, Long diarioId);
 
+    @EntityGraph("EntradaDiaria.detalle")
     List<EntradaDiaria> findByUsuarioIdAndFechaEntradaBetween(Long usuarioId, java.time.LocalDate start, java.time.LocalDate end);
 
+    // Mismo filtro que findByUsuarioIdAndFechaEntradaBetween, proyectado a escalares para no cargar asociaciones
+    @Query("select new com.diario_intimidad.dto.EntradaResumen(e.id, e.diaMaestro.id, e.fechaEntrada, e.completado, e.estadoLlenado) " +
+            "from EntradaDiaria e where e.usuario.id = :usuarioId and e.fechaEntrada between :start and :end " +
+            "order by e.fechaEntrada")
+    List<EntradaResumen> findResumenByUsuarioIdAndFechaEntradaBetween(@Param("usuarioId") Long usuarioId,
+                                                                      @Param("start") LocalDate start,
+                                                                      @Param("end") LocalDate end);
+
+    boolean existsByIdAndUsuarioId(Long id, Long usuarioId);
+
+    @Query("select e.fechaEntrada from EntradaDiaria e " +
+            "where e.usuario.id = :usuarioId and e.diario.id = :diarioId and e.completado = true")
+    List<LocalDate> findFechasCompletadas(@Param("usuarioId") Long usuarioId, @Param("diarioId") Long diarioId);
+
+    @EntityGraph("EntradaDiaria.detalle")
     Optional<EntradaDiaria> findByUsuarioIdAndFechaEntrada(Long usuarioId, LocalDate fechaEntrada);
 
+    @EntityGraph("EntradaDiaria.detalle")
     Optional<EntradaDiaria> findByUsuarioAndDiaMaestro(Usuario usuario, DiaMaestro diaMaestro);
 
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.diario_intimidad.repository;
 
 import com.diario_intimidad.entity.MesMaestro;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +11,20 @@ import java.util.Optional;
 
 @Repository
 public interface MesMaestroRepository extends JpaRepository<MesMaestro, Long> {
+    @Override
+    @EntityGraph("MesMaestro.conDiario")
+    List<MesMaestro> findAll();
+
+    @Override
+    @EntityGraph("MesMaestro.conDiario")
+    Optional<MesMaestro> findById(Long id);
+
+    @EntityGraph("MesMaestro.conDiario")
     List<MesMaestro> findByDiarioAnual_Id(Long diarioId);
+
+    @EntityGraph("MesMaestro.conDiario")
     Optional<MesMaestro> findByDiarioAnualIdAndMesNumero(Long diarioId, Integer mesNumero);
+
+    @Query("select m from MesMaestro m join fetch m.diarioAnual")
+    List<MesMaestro> findAllWithDiarioAnual();
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.diario_intimidad.repository;
 
 import com.diario_intimidad.entity.Pedido;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,7 +10,23 @@ import java.util.Optional;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
+    @Override
+    @EntityGraph("Pedido.detalle")
+    List<Pedido> findAll();
+
+    @Override
+    @EntityGraph("Pedido.detalle")
+    Optional<Pedido> findById(Long id);
+
+    @EntityGraph("Pedido.detalle")
     List<Pedido> findByEmail(String email);
+
+    @EntityGraph("Pedido.detalle")
     Optional<Pedido> findByTokenValidacion(String token);
+
+    @EntityGraph("Pedido.detalle")
     List<Pedido> findByEstado(String estado);
+
+    @EntityGraph("Pedido.detalle")
+    List<Pedido> findByUsuarioIdAndEstado(Long usuarioId, String estado);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.diario_intimidad.repository;
+
+import com.diario_intimidad.entity.ProgresoAnual;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProgresoAnualRepository extends JpaRepository<ProgresoAnual, Long> {
+
+    Optional<ProgresoAnual> findByUsuarioIdAndDiarioId(Long usuarioId, Long diarioId);
+
+    // Bloquea la fila para que dos guardados simultáneos del mismo usuario no pierdan bits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from ProgresoAnual p where p.usuario.id = :usuarioId and p.diario.id = :diarioId")
+    Optional<ProgresoAnual> findForUpdate(@Param("usuarioId") Long usuarioId, @Param("diarioId") Long diarioId);
+
+    // Devuelve 1 si la fila se creó ahora y 0 si ya existía
+    @Modifying
+    @Query(value = "INSERT INTO progreso_anual (usuario_id, diario_id, dias_completados) " +
+            "VALUES (:usuarioId, :diarioId, :diasCompletados) ON CONFLICT (usuario_id, diario_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("usuarioId") Long usuarioId, @Param("diarioId") Long diarioId,
+                       @Param("diasCompletados") byte[] diasCompletados);
+}
@@ -2,7 +2,10 @@ package com.diario_intimidad.repository;
 
 import com.diario_intimidad.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -10,4 +13,16 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     Optional<Usuario> findByEmailIgnoreCase(String email);
 
+    /**
+     * Id y fecha de revocación de tokens de todos los usuarios, sin cargar las entidades.
+     */
+    @Query("SELECT u.id AS id, u.tokensValidAfter AS tokensValidAfter FROM Usuario u")
+    List<AccessRow> findAccessRows();
+
+    interface AccessRow {
+        Long getId();
+
+        LocalDateTime getTokensValidAfter();
+    }
+
 }
\ No newline at end of file
@@ -1,11 +1,26 @@
 package com.diario_intimidad.repository;
 
+import com.diario_intimidad.dto.ValorCampoResponse;
 import com.diario_intimidad.entity.ValoresCampo;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ValoresCampoRepository extends JpaRepository<ValoresCampo, Long> {
 
+    @EntityGraph("ValoresCampo.conCampo")
     java.util.List<ValoresCampo> findByEntradaDiariaId(Long entradaDiariaId);
-}
\ No newline at end of file
+
+    // Solo los valores del usuario para el día, sin metadatos de campo
+    @Query("select new com.diario_intimidad.dto.ValorCampoResponse(v.id, v.camposDiario.id, v.valorTexto, v.valorAudioUrl) " +
+            "from ValoresCampo v where v.entradaDiaria.usuario.id = :usuarioId and v.entradaDiaria.diaMaestro.id = :diaMaestroId")
+    java.util.List<ValorCampoResponse> findValoresDelDia(@Param("usuarioId") Long usuarioId,
+                                                         @Param("diaMaestroId") Long diaMaestroId);
+
+    @Query("select new com.diario_intimidad.dto.ValorCampoResponse(v.id, v.camposDiario.id, v.valorTexto, v.valorAudioUrl) " +
+            "from ValoresCampo v where v.entradaDiaria.id = :entradaId order by v.camposDiario.orden")
+    java.util.List<ValorCampoResponse> findResponseByEntradaDiariaId(@Param("entradaId") Long entradaId);
+}
@@ -0,0 +1,116 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decodificador incremental de las respuestas de bible-api: recibe el cuerpo trozo a trozo según
+ * llega de la red y extrae directamente los pares {@code number}/{@code verse}, sin construir el
+ * árbol de mapas y listas de la respuesta completa.
+ * <p>
+ * Sirve para las tres formas que devuelve la API: una lista de versículos, un capítulo con la lista
+ * en {@code vers} o {@code verses}, o un único versículo. Cualquier objeto con un campo {@code verse}
+ * de texto cuenta como versículo; el resto de campos se ignora. No es seguro para hilos: uno por respuesta.
+ */
+final class BibleApiDecoder {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final List<BibleVerse> verses = new ArrayList<>();
+
+    // Estado por nivel de objeto abierto: número y texto vistos hasta ahora
+    private int[] numbers = new int[8];
+    private String[] texts = new String[8];
+    private int depth = -1;
+    private String field;
+
+    BibleApiDecoder() {
+        try {
+            parser = FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Procesa un trozo del cuerpo. El llamador sigue siendo dueño de {@code buffer} y lo libera después.
+     */
+    BibleApiDecoder feed(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                ByteBuffer chunk = chunks.next();
+                feeder.feedInput(chunk);
+                drain();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Respuesta no válida de la API bíblica: " + e.getMessage(), e);
+        }
+        return this;
+    }
+
+    /**
+     * Cierra la entrada y devuelve los versículos en el orden en que llegaron.
+     */
+    List<BibleVerse> finish() {
+        try {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Respuesta no válida de la API bíblica: " + e.getMessage(), e);
+        }
+        return verses;
+    }
+
+    // Consume los tokens completos disponibles; el parser pide más entrada con NOT_AVAILABLE
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT -> {
+                    if (++depth == numbers.length) {
+                        numbers = Arrays.copyOf(numbers, depth * 2);
+                        texts = Arrays.copyOf(texts, depth * 2);
+                    }
+                    numbers[depth] = 0;
+                    texts[depth] = null;
+                    field = null;
+                }
+                case END_OBJECT -> {
+                    if (texts[depth] != null) {
+                        verses.add(new BibleVerse(numbers[depth], texts[depth]));
+                    }
+                    depth--;
+                    field = null;
+                }
+                case FIELD_NAME -> field = parser.currentName();
+                case VALUE_NUMBER_INT -> {
+                    if ("number".equals(field) && depth >= 0) {
+                        numbers[depth] = parser.getIntValue();
+                    }
+                    field = null;
+                }
+                case VALUE_STRING -> {
+                    if ("verse".equals(field) && depth >= 0) {
+                        texts[depth] = parser.getText();
+                    }
+                    field = null;
+                }
+                default -> field = null;
+            }
+        }
+    }
+}
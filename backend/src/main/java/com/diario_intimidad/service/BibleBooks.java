@@ -0,0 +1,71 @@
+package com.diario_intimidad.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Los 66 libros en orden canónico con los códigos que usa bible-api.deno.dev.
+ * El índice de cada libro es también su posición en los ficheros del corpus local.
+ */
+public final class BibleBooks {
+
+    private static final String[] CODES = {
+            "genesis", "exodo", "levitico", "numeros", "deuteronomio", "josue", "jueces", "rut",
+            "1-samuel", "2-samuel", "1-reyes", "2-reyes", "1-cronicas", "2-cronicas", "esdras", "nehemias",
+            "ester", "job", "salmos", "proverbios", "eclesiastes", "cantares", "isaias", "jeremias",
+            "lamentaciones", "ezequiel", "daniel", "oseas", "joel", "amos", "abdias", "jonas",
+            "miqueas", "nahum", "habacuc", "sofonias", "hageo", "zacarias", "malaquias",
+            "mateo", "marcos", "lucas", "juan", "hechos", "romanos", "1-corintios", "2-corintios",
+            "galatas", "efesios", "filipenses", "colosenses", "1-tesalonicenses", "2-tesalonicenses", "1-timoteo",
+            "2-timoteo", "tito", "filemon", "hebreos", "santiago", "1-pedro", "2-pedro", "1-juan",
+            "2-juan", "3-juan", "judas", "apocalipsis"
+    };
+
+    private static final String[] NAMES = {
+            "Génesis", "Éxodo", "Levítico", "Números", "Deuteronomio", "Josué", "Jueces", "Rut",
+            "1 Samuel", "2 Samuel", "1 Reyes", "2 Reyes", "1 Crónicas", "2 Crónicas", "Esdras", "Nehemías",
+            "Ester", "Job", "Salmos", "Proverbios", "Eclesiastés", "Cantares", "Isaías", "Jeremías",
+            "Lamentaciones", "Ezequiel", "Daniel", "Oseas", "Joel", "Amós", "Abdías", "Jonás",
+            "Miqueas", "Nahúm", "Habacuc", "Sofonías", "Hageo", "Zacarías", "Malaquías",
+            "Mateo", "Marcos", "Lucas", "Juan", "Hechos", "Romanos", "1 Corintios", "2 Corintios",
+            "Gálatas", "Efesios", "Filipenses", "Colosenses", "1 Tesalonicenses", "2 Tesalonicenses", "1 Timoteo",
+            "2 Timoteo", "Tito", "Filemón", "Hebreos", "Santiago", "1 Pedro", "2 Pedro", "1 Juan",
+            "2 Juan", "3 Juan", "Judas", "Apocalipsis"
+    };
+
+    public static final int COUNT = CODES.length;
+
+    private static final Map<String, Integer> INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < CODES.length; i++) {
+            INDEX.put(CODES[i], i);
+        }
+    }
+
+    private BibleBooks() {
+    }
+
+    public static String code(int index) {
+        return CODES[index];
+    }
+
+    /**
+     * Nombre para mostrar ("1 Corintios", "Génesis").
+     */
+    public static String name(int index) {
+        return NAMES[index];
+    }
+
+    /**
+     * Posición del libro a partir de su código, su nombre o una abreviatura ("1 Corintios", "Génesis", "1 Co");
+     * -1 si no se reconoce.
+     */
+    public static int indexOf(String codeOrName) {
+        if (codeOrName == null) {
+            return -1;
+        }
+        Integer index = INDEX.get(codeOrName);
+        return index != null ? index : BibleReference.bookIndex(codeOrName);
+    }
+}
@@ -0,0 +1,243 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Corpus de una traducción en dos ficheros mapeados en memoria:
+ * <ul>
+ *   <li>{@code <traduccion>.txt}: textos de todos los versículos en UTF-8, uno tras otro.</li>
+ *   <li>{@code <traduccion>.idx}: tabla de offsets. Cabecera (magic, versión, libros, capítulos, versículos),
+ *   primer capítulo de cada libro, primer versículo de cada capítulo, número del primer versículo
+ *   de cada capítulo (0 si se guardó sin numerar) y offset de cada versículo dentro del .txt.</li>
+ * </ul>
+ * Una consulta son unas pocas lecturas de enteros en posiciones absolutas más la copia de los bytes del texto.
+ */
+public final class BibleCorpusFile implements AutoCloseable {
+
+    static final int MAGIC = 0x42494258; // "BIBX"
+    static final int VERSION = 1;
+    static final String INDEX_SUFFIX = ".idx";
+    static final String TEXT_SUFFIX = ".txt";
+
+    private static final int HEADER_INTS = 5;
+
+    private final FileChannel indexChannel;
+    private final FileChannel textChannel;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer text;
+    private final int bookCount;
+    private final int chapterBase;
+    private final int verseBase;
+    private final int firstNumberBase;
+    private final int offsetBase;
+
+    private BibleCorpusFile(FileChannel indexChannel, FileChannel textChannel) throws IOException {
+        this.indexChannel = indexChannel;
+        this.textChannel = textChannel;
+        this.index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+        this.text = textChannel.map(FileChannel.MapMode.READ_ONLY, 0, textChannel.size());
+        if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IOException("Fichero de índice de corpus no válido");
+        }
+        this.bookCount = index.getInt(8);
+        int totalChapters = index.getInt(12);
+        int totalVerses = index.getInt(16);
+        this.chapterBase = HEADER_INTS * 4;
+        this.verseBase = chapterBase + (bookCount + 1) * 4;
+        this.firstNumberBase = verseBase + (totalChapters + 1) * 4;
+        this.offsetBase = firstNumberBase + totalChapters * 4;
+        if (offsetBase + (totalVerses + 1) * 4L != index.capacity()) {
+            throw new IOException("Tamaño del índice de corpus inconsistente");
+        }
+    }
+
+    public static BibleCorpusFile open(Path directory, String translation) throws IOException {
+        FileChannel indexChannel = FileChannel.open(directory.resolve(translation + INDEX_SUFFIX), StandardOpenOption.READ);
+        try {
+            FileChannel textChannel = FileChannel.open(directory.resolve(translation + TEXT_SUFFIX), StandardOpenOption.READ);
+            try {
+                return new BibleCorpusFile(indexChannel, textChannel);
+            } catch (IOException | RuntimeException e) {
+                textChannel.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Versículos {@code verseStart..verseEnd} del capítulo (todos si {@code verseStart == 0}).
+     * Lista vacía si el libro, el capítulo o los versículos no están en el corpus.
+     */
+    public List<BibleVerse> read(int book, int chapter, int verseStart, int verseEnd) {
+        if (book < 0 || book >= bookCount || chapter < 1) {
+            return List.of();
+        }
+        int firstChapter = index.getInt(chapterBase + book * 4);
+        int chapters = index.getInt(chapterBase + (book + 1) * 4) - firstChapter;
+        if (chapter > chapters) {
+            return List.of();
+        }
+        int c = firstChapter + chapter - 1;
+        int first = index.getInt(verseBase + c * 4);
+        int count = index.getInt(verseBase + (c + 1) * 4) - first;
+        if (count == 0) {
+            return List.of();
+        }
+        int firstNumber = index.getInt(firstNumberBase + c * 4);
+        if (firstNumber == 0) {
+            // Capítulo importado sin separación de versículos: solo sirve para pedir el capítulo completo
+            return verseStart == 0 ? List.of(new BibleVerse(0, text(first))) : List.of();
+        }
+        int from = verseStart == 0 ? 1 : Math.max(verseStart, 1);
+        int to = verseStart == 0 ? count : Math.min(verseEnd, count);
+        List<BibleVerse> verses = new ArrayList<>(Math.max(to - from + 1, 0));
+        for (int n = from; n <= to; n++) {
+            String verse = text(first + n - 1);
+            if (!verse.isEmpty()) {
+                verses.add(new BibleVerse(n, verse));
+            }
+        }
+        return verses;
+    }
+
+    /**
+     * Recibe cada versículo del corpus en orden canónico; {@code verse} es su posición global en el fichero.
+     */
+    @FunctionalInterface
+    public interface VerseVisitor {
+        void visit(int verse, int book, int chapter, int number, String text);
+    }
+
+    public void forEachVerse(VerseVisitor visitor) {
+        for (int book = 0; book < bookCount; book++) {
+            int firstChapter = index.getInt(chapterBase + book * 4);
+            int lastChapter = index.getInt(chapterBase + (book + 1) * 4);
+            for (int c = firstChapter; c < lastChapter; c++) {
+                int first = index.getInt(verseBase + c * 4);
+                int end = index.getInt(verseBase + (c + 1) * 4);
+                boolean numbered = index.getInt(firstNumberBase + c * 4) != 0;
+                for (int v = first; v < end; v++) {
+                    String text = text(v);
+                    if (!text.isEmpty()) {
+                        visitor.visit(v, book, c - firstChapter + 1, numbered ? v - first + 1 : 0, text);
+                    }
+                }
+            }
+        }
+    }
+
+    public int verseCount() {
+        return index.getInt(16);
+    }
+
+    /**
+     * Texto del versículo en la posición global {@code verse}.
+     */
+    public String text(int verse) {
+        int start = index.getInt(offsetBase + verse * 4);
+        int end = index.getInt(offsetBase + (verse + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        text.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            indexChannel.close();
+        } finally {
+            textChannel.close();
+        }
+    }
+
+    /**
+     * Escribe el corpus de una traducción. {@code books} va de índice de libro ({@link BibleBooks})
+     * a capítulos; cada capítulo es la lista de versículos numerados desde 1, o un único
+     * versículo con número 0 si el texto no viene separado. Los ficheros se sustituyen de forma atómica.
+     */
+    public static void write(Path directory, String translation, Map<Integer, SortedMap<Integer, List<BibleVerse>>> books)
+            throws IOException {
+        Files.createDirectories(directory);
+        List<Integer> chapterStarts = new ArrayList<>();
+        List<Integer> verseStarts = new ArrayList<>();
+        List<Integer> firstNumbers = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+
+        Path textTmp = Files.createTempFile(directory, translation, TEXT_SUFFIX + ".tmp");
+        int offset = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(textTmp))) {
+            for (int book = 0; book < BibleBooks.COUNT; book++) {
+                chapterStarts.add(verseStarts.size());
+                SortedMap<Integer, List<BibleVerse>> chapters = books.get(book);
+                int lastChapter = chapters == null || chapters.isEmpty() ? 0 : chapters.lastKey();
+                for (int chapter = 1; chapter <= lastChapter; chapter++) {
+                    verseStarts.add(offsets.size());
+                    List<BibleVerse> verses = chapters.getOrDefault(chapter, List.of());
+                    boolean numbered = verses.isEmpty() || verses.get(0).number() != 0;
+                    firstNumbers.add(numbered ? 1 : 0);
+                    for (String verse : numbered ? contiguous(verses) : List.of(verses.get(0).text())) {
+                        offsets.add(offset);
+                        byte[] bytes = verse.getBytes(StandardCharsets.UTF_8);
+                        out.write(bytes);
+                        offset += bytes.length;
+                    }
+                }
+            }
+            chapterStarts.add(verseStarts.size());
+            verseStarts.add(offsets.size());
+            offsets.add(offset);
+        }
+
+        Path indexTmp = Files.createTempFile(directory, translation, INDEX_SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(BibleBooks.COUNT);
+            out.writeInt(firstNumbers.size());
+            out.writeInt(offsets.size() - 1);
+            for (List<Integer> table : List.of(chapterStarts, verseStarts, firstNumbers, offsets)) {
+                for (int value : table) {
+                    out.writeInt(value);
+                }
+            }
+        }
+        Files.move(textTmp, directory.resolve(translation + TEXT_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, directory.resolve(translation + INDEX_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Textos indexados por número de versículo; los huecos quedan como cadena vacía
+    private static List<String> contiguous(List<BibleVerse> verses) {
+        int max = 0;
+        for (BibleVerse verse : verses) {
+            max = Math.max(max, verse.number());
+        }
+        String[] texts = new String[max];
+        Arrays.fill(texts, "");
+        for (BibleVerse verse : verses) {
+            if (verse.number() > 0) {
+                texts[verse.number() - 1] = verse.text();
+            }
+        }
+        return List.of(texts);
+    }
+}
@@ -0,0 +1,34 @@
+package com.diario_intimidad.service;
+
+/**
+ * Pasaje normalizado: traducción, código de libro, capítulo y rango de versículos.
+ * {@code verseStart == 0} indica el capítulo completo y {@code verseEnd == END_OF_CHAPTER},
+ * hasta el final del capítulo.
+ */
+public record BiblePassageKey(String translation, String bookCode, int chapter, int verseStart, int verseEnd) {
+
+    public static final int END_OF_CHAPTER = Integer.MAX_VALUE;
+
+    public static BiblePassageKey chapter(String translation, String bookCode, int chapter) {
+        return new BiblePassageKey(translation, bookCode, chapter, 0, 0);
+    }
+
+    public boolean isChapter() {
+        return verseStart == 0;
+    }
+
+    public boolean isToEndOfChapter() {
+        return verseEnd == END_OF_CHAPTER;
+    }
+
+    /**
+     * Parte de versículos de la referencia ("16", "24-27"), vacía para un capítulo completo
+     * o un tramo hasta el final del capítulo.
+     */
+    public String versePart() {
+        if (isChapter() || isToEndOfChapter()) {
+            return "";
+        }
+        return verseStart == verseEnd ? String.valueOf(verseStart) : verseStart + "-" + verseEnd;
+    }
+}
@@ -0,0 +1,135 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.entity.DiaMaestro;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Precarga en la caché de versículos las lecturas de los próximos días del calendario
+ * ({@code lecturaBiblica} y {@code versiculoDiario}) en las traducciones configuradas,
+ * al arrancar y cada noche, limitando la concurrencia y el ritmo de llamadas al origen.
+ * Hasta que termina la precarga inicial, {@link #isReady()} devuelve false.
+ */
+@Service
+public class BiblePrefetchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BiblePrefetchService.class);
+
+    @Autowired
+    private CalendarIndex calendarIndex;
+
+    @Autowired
+    private BibleService bibleService;
+
+    @Value("${app.bible.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.bible.prefetch.days:7}")
+    private int days;
+
+    @Value("${app.bible.prefetch.translations:rv1960,nvi}")
+    private List<String> translations;
+
+    @Value("${app.bible.prefetch.concurrency:2}")
+    private int concurrency;
+
+    @Value("${app.bible.prefetch.delay-ms:250}")
+    private long delayMs;
+
+    private final AtomicBoolean ready = new AtomicBoolean();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            ready.set(true);
+            return;
+        }
+        prefetch(LocalDate.now())
+                .doFinally(signal -> {
+                    ready.set(true);
+                    logger.info("Precarga inicial de versículos terminada");
+                })
+                .subscribe();
+    }
+
+    // Sin bloquear: el planificador tiene un solo hilo, compartido con el volcado de borradores y otras tareas
+    @Scheduled(cron = "${app.bible.prefetch.cron:0 30 3 * * *}")
+    public void nightly() {
+        if (enabled) {
+            prefetch(LocalDate.now()).subscribe();
+        }
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * Resuelve las referencias de {@code desde} y los {@code days - 1} días siguientes; los fallos
+     * de un pasaje se registran y no detienen el resto. Si ya hay una precarga en curso no hace nada.
+     */
+    public Mono<Void> prefetch(LocalDate desde) {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                logger.info("Ya hay una precarga de versículos en curso");
+                return Mono.empty();
+            }
+            Set<BiblePassageKey> keys = collectKeys(desde);
+            logger.info("Precargando {} pasajes de {} días desde {}", keys.size(), days, desde);
+            return Flux.fromIterable(keys)
+                    .delayElements(Duration.ofMillis(delayMs))
+                    .flatMap(this::warm, concurrency)
+                    .then()
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    private Mono<Void> warm(BiblePassageKey key) {
+        return bibleService.getVerses(key)
+                .onErrorResume(e -> {
+                    logger.warn("No se pudo precargar {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Set<BiblePassageKey> collectKeys(LocalDate desde) {
+        Set<BiblePassageKey> keys = new LinkedHashSet<>();
+        for (int i = 0; i < days; i++) {
+            Optional<DiaMaestro> dia = calendarIndex.findDia(desde.plusDays(i));
+            if (dia.isEmpty()) {
+                continue;
+            }
+            for (String reference : new String[]{dia.get().getLecturaBiblica(), dia.get().getVersiculoDiario()}) {
+                if (reference == null || reference.isBlank()) {
+                    continue;
+                }
+                for (String translation : translations) {
+                    List<BiblePassageKey> passages = bibleService.resolve(reference, translation);
+                    if (passages != null) {
+                        keys.addAll(passages);
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,360 @@
+package com.diario_intimidad.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Referencia bíblica ya analizada: uno o más tramos, cada uno de un libro y un rango de capítulos y versículos.
+ * <p>
+ * Acepta "Juan 3:16", "Jn 3:16-18", "1 Co 13", "Sal 1-2", "Juan 3:16-4:2; 5:1", "Mt 5:3,7-9" y
+ * "Sofónías 1". Los nombres se comparan sin tildes ni mayúsculas a través de un trie precalculado
+ * de nombres y abreviaturas; el texto se recorre carácter a carácter sin expresiones regulares ni subcadenas.
+ */
+public final class BibleReference {
+
+    /**
+     * Tramo de {@code chapterStart:verseStart} a {@code chapterEnd:verseEnd}.
+     * {@code verseStart == 0} indica capítulos completos.
+     */
+    public record Segment(int book, int chapterStart, int verseStart, int chapterEnd, int verseEnd) {
+
+        public boolean wholeChapters() {
+            return verseStart == 0;
+        }
+    }
+
+    private static final int MAX_NUMBER = 999;
+
+    private final List<Segment> segments;
+
+    private BibleReference(List<Segment> segments) {
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    /**
+     * Analiza el texto completo como referencia; null si no lo es (por ejemplo, un texto de lectura libre).
+     */
+    public static BibleReference parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        Cursor in = new Cursor(text);
+        List<Segment> segments = new ArrayList<>(2);
+        int book = -1;
+        while (true) {
+            in.skipSpaces();
+            if (in.startsBook()) {
+                book = in.book();
+                if (book < 0) {
+                    return null;
+                }
+                in.skipSpaces();
+            } else if (book < 0) {
+                return null;
+            }
+            if (!in.chapterSpec(book, segments)) {
+                return null;
+            }
+            in.skipSpaces();
+            if (in.atEnd()) {
+                return new BibleReference(segments);
+            }
+            if (in.peek() != ';') {
+                return null;
+            }
+            in.pos++;
+        }
+    }
+
+    /**
+     * Posición del libro (ver {@link BibleBooks}) si {@code name} es exactamente un nombre o abreviatura; -1 si no.
+     */
+    public static int bookIndex(CharSequence name) {
+        Cursor in = new Cursor(name);
+        in.skipSpaces();
+        int book = in.book();
+        in.skipSpaces();
+        return in.atEnd() ? book : -1;
+    }
+
+    /**
+     * Minúscula sin tilde de {@code c} (a-z, 0-9); 0 si no es letra ni dígito. Compartido con el buscador.
+     */
+    static char fold(char c) {
+        return Trie.fold(c);
+    }
+
+    // Cursor sobre el texto; los métodos avanzan pos solo sobre lo que reconocen
+    private static final class Cursor {
+        final CharSequence s;
+        int pos;
+
+        Cursor(CharSequence s) {
+            this.s = s;
+        }
+
+        boolean atEnd() {
+            return pos >= s.length();
+        }
+
+        char peek() {
+            return s.charAt(pos);
+        }
+
+        void skipSpaces() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        // Letra, o número seguido de letras ("1 Co")
+        boolean startsBook() {
+            int i = pos;
+            while (i < s.length() && isDigit(s.charAt(i))) {
+                i++;
+            }
+            while (i < s.length() && (Character.isWhitespace(s.charAt(i)) || s.charAt(i) == '.')) {
+                i++;
+            }
+            return i < s.length() && Trie.symbol(Trie.fold(s.charAt(i))) >= 0 && !isDigit(s.charAt(i));
+        }
+
+        // Coincidencia más larga en el trie, ignorando espacios y puntos entre letras
+        int book() {
+            int node = 0;
+            int book = -1;
+            int end = pos;
+            int i = pos;
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c) || c == '.') {
+                    i++;
+                    continue;
+                }
+                int next = Trie.next(node, Trie.fold(c));
+                if (next < 0) {
+                    break;
+                }
+                node = next;
+                i++;
+                if (Trie.BOOK[node] >= 0) {
+                    book = Trie.BOOK[node];
+                    end = i;
+                }
+            }
+            if (book < 0) {
+                return -1;
+            }
+            pos = end;
+            // El nombre no puede continuar con más letras ("Salmones")
+            while (pos < s.length() && s.charAt(pos) == '.') {
+                pos++;
+            }
+            return pos < s.length() && Character.isLetter(s.charAt(pos)) ? -1 : book;
+        }
+
+        int number() {
+            int value = 0;
+            int digits = 0;
+            while (pos < s.length() && isDigit(s.charAt(pos))) {
+                value = value * 10 + (s.charAt(pos) - '0');
+                pos++;
+                if (++digits > 3) {
+                    return -1;
+                }
+            }
+            return digits == 0 || value == 0 || value > MAX_NUMBER ? -1 : value;
+        }
+
+        boolean consume(char c) {
+            skipSpaces();
+            if (pos < s.length() && (s.charAt(pos) == c || (c == '-' && isDash(s.charAt(pos))))) {
+                pos++;
+                skipSpaces();
+                return true;
+            }
+            return false;
+        }
+
+        // C[:V][-(C:V|V|C)] seguido de ",V[-V]" opcionales
+        boolean chapterSpec(int book, List<Segment> out) {
+            int chapter = number();
+            if (chapter < 0) {
+                return false;
+            }
+            int verse = 0;
+            if (consume(':')) {
+                verse = number();
+                if (verse < 0) {
+                    return false;
+                }
+            }
+            int chapterEnd = chapter;
+            int verseEnd = verse;
+            if (consume('-')) {
+                int n = number();
+                if (n < 0) {
+                    return false;
+                }
+                if (consume(':')) {
+                    chapterEnd = n;
+                    verseEnd = number();
+                    if (verseEnd < 0) {
+                        return false;
+                    }
+                    if (verse == 0) {
+                        verse = 1;
+                    }
+                } else if (verse > 0) {
+                    verseEnd = n;
+                } else {
+                    chapterEnd = n;
+                }
+            }
+            if (chapterEnd < chapter || (chapterEnd == chapter && verseEnd < verse)) {
+                return false;
+            }
+            out.add(new Segment(book, chapter, verse, chapterEnd, verseEnd));
+            while (verse > 0 && consume(',')) {
+                int from = number();
+                int to = from;
+                if (from < 0) {
+                    return false;
+                }
+                if (consume('-')) {
+                    to = number();
+                    if (to < from) {
+                        return false;
+                    }
+                }
+                out.add(new Segment(book, chapterEnd, from, chapterEnd, to));
+            }
+            return true;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isDash(char c) {
+            return c == '–' || c == '—';
+        }
+    }
+
+    /**
+     * Trie de nombres y abreviaturas plegados (a-z, 0-9) en tablas planas de enteros.
+     */
+    private static final class Trie {
+
+        private static final int SYMBOLS = 36;
+
+        // Nombre completo (y el código de bible-api sin guion) seguido de abreviaturas habituales
+        private static final String[][] NAMES = {
+                {"genesis", "gn", "gen", "ge"}, {"exodo", "ex", "exo"}, {"levitico", "lv", "lev"},
+                {"numeros", "nm", "num"}, {"deuteronomio", "dt", "deut", "deu"}, {"josue", "jos"},
+                {"jueces", "jue", "jc"}, {"rut", "rt"}, {"1samuel", "1s", "1sa", "1sam"},
+                {"2samuel", "2s", "2sa", "2sam"}, {"1reyes", "1r", "1re", "1rey"}, {"2reyes", "2r", "2re", "2rey"},
+                {"1cronicas", "1cr", "1cro", "1cron"}, {"2cronicas", "2cr", "2cro", "2cron"}, {"esdras", "esd"},
+                {"nehemias", "neh", "ne"}, {"ester", "est"}, {"job", "jb"},
+                {"salmos", "salmo", "sal", "sl"}, {"proverbios", "pr", "pro", "prov"}, {"eclesiastes", "ec", "ecl"},
+                {"cantares", "cantardeloscantares", "cnt", "cant"}, {"isaias", "is", "isa"}, {"jeremias", "jer", "jr"},
+                {"lamentaciones", "lm", "lam"}, {"ezequiel", "ez", "eze"}, {"daniel", "dn", "dan"},
+                {"oseas", "os"}, {"joel", "jl"}, {"amos", "am"}, {"abdias", "abd"}, {"jonas", "jon"},
+                {"miqueas", "mi", "miq"}, {"nahum", "nah"}, {"habacuc", "hab"}, {"sofonias", "sof"},
+                {"hageo", "hag"}, {"zacarias", "zac"}, {"malaquias", "mal"},
+                {"mateo", "mt", "mat"}, {"marcos", "mc", "mr", "mar"}, {"lucas", "lc", "luc"}, {"juan", "jn"},
+                {"hechos", "hch", "hech", "hec"}, {"romanos", "ro", "rom"}, {"1corintios", "1co", "1cor"},
+                {"2corintios", "2co", "2cor"}, {"galatas", "ga", "gal"}, {"efesios", "ef", "efe"},
+                {"filipenses", "fil", "flp"}, {"colosenses", "col"}, {"1tesalonicenses", "1ts", "1tes"},
+                {"2tesalonicenses", "2ts", "2tes"}, {"1timoteo", "1ti", "1tim"}, {"2timoteo", "2ti", "2tim"},
+                {"tito", "tit"}, {"filemon", "flm", "filem"}, {"hebreos", "heb"}, {"santiago", "stg", "sant"},
+                {"1pedro", "1p", "1pe", "1ped"}, {"2pedro", "2p", "2pe", "2ped"}, {"1juan", "1jn"},
+                {"2juan", "2jn"}, {"3juan", "3jn"}, {"judas", "jud"}, {"apocalipsis", "ap", "apoc", "apo"}
+        };
+
+        static final int[] NEXT;
+        static final int[] BOOK;
+
+        static {
+            int capacity = 1;
+            for (String[] names : NAMES) {
+                for (String name : names) {
+                    capacity += name.length();
+                }
+            }
+            int[] next = new int[capacity * SYMBOLS];
+            int[] book = new int[capacity];
+            Arrays.fill(next, -1);
+            Arrays.fill(book, -1);
+            int nodes = 1;
+            for (int b = 0; b < NAMES.length; b++) {
+                for (String name : NAMES[b]) {
+                    int node = 0;
+                    for (int i = 0; i < name.length(); i++) {
+                        int slot = node * SYMBOLS + symbol(name.charAt(i));
+                        if (next[slot] < 0) {
+                            next[slot] = nodes++;
+                        }
+                        node = next[slot];
+                    }
+                    if (book[node] >= 0 && book[node] != b) {
+                        throw new IllegalStateException("Abreviatura ambigua: " + name);
+                    }
+                    book[node] = b;
+                }
+            }
+            NEXT = Arrays.copyOf(next, nodes * SYMBOLS);
+            BOOK = Arrays.copyOf(book, nodes);
+            if (NAMES.length != BibleBooks.COUNT) {
+                throw new IllegalStateException("La tabla de nombres no tiene " + BibleBooks.COUNT + " libros");
+            }
+        }
+
+        static int next(int node, char folded) {
+            int symbol = symbol(folded);
+            return symbol < 0 ? -1 : NEXT[node * SYMBOLS + symbol];
+        }
+
+        static int symbol(char folded) {
+            if (folded >= 'a' && folded <= 'z') {
+                return folded - 'a';
+            }
+            if (folded >= '0' && folded <= '9') {
+                return 26 + folded - '0';
+            }
+            return -1;
+        }
+
+        // Minúscula sin tilde; 0 para caracteres que no forman parte de un nombre
+        static char fold(char c) {
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                return c;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                return (char) (c + ('a' - 'A'));
+            }
+            switch (c) {
+                case 'á': case 'à': case 'ä': case 'â': case 'Á': case 'À': case 'Ä': case 'Â':
+                    return 'a';
+                case 'é': case 'è': case 'ë': case 'ê': case 'É': case 'È': case 'Ë': case 'Ê':
+                    return 'e';
+                case 'í': case 'ì': case 'ï': case 'î': case 'Í': case 'Ì': case 'Ï': case 'Î':
+                    return 'i';
+                case 'ó': case 'ò': case 'ö': case 'ô': case 'Ó': case 'Ò': case 'Ö': case 'Ô':
+                    return 'o';
+                case 'ú': case 'ù': case 'ü': case 'û': case 'Ú': case 'Ù': case 'Ü': case 'Û':
+                    return 'u';
+                case 'ñ': case 'Ñ':
+                    return 'n';
+                default:
+                    return 0;
+            }
+        }
+    }
+}
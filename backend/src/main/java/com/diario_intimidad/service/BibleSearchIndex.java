@@ -0,0 +1,480 @@
+package com.diario_intimidad.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido en memoria de una traducción del corpus local.
+ * <p>
+ * Cada término (minúsculas, sin tildes y con un lematizado ligero del español) guarda su lista de
+ * apariciones comprimida en un {@code byte[]} con enteros de longitud variable: diferencia con el
+ * versículo anterior, frecuencia y diferencias entre posiciones. Los términos se guardan ordenados,
+ * lo que permite resolver los prefijos ("pastor*") con una búsqueda binaria.
+ * <p>
+ * Las consultas combinan términos, frases entre comillas y prefijos; un versículo debe cumplirlos
+ * todos y se ordena por BM25.
+ */
+public final class BibleSearchIndex {
+
+    /**
+     * Versículo encontrado; {@code number} es 0 en capítulos sin numerar.
+     */
+    public record Hit(int book, int chapter, int number, String text, double score) {
+    }
+
+    public record Page(int total, List<Hit> hits) {
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_CLAUSES = 12;
+    private static final int MAX_PREFIX_TERMS = 256;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final BibleCorpusFile corpus;
+    private final String[] terms;
+    private final int[] documentFrequency;
+    private final byte[][] postings;
+    // Por documento: posición global del versículo en el corpus, ubicación y número de palabras
+    private final int[] docVerse;
+    private final int[] docBook;
+    private final int[] docChapter;
+    private final int[] docNumber;
+    private final int[] docLength;
+    private final double averageLength;
+
+    private BibleSearchIndex(BibleCorpusFile corpus, String[] terms, int[] documentFrequency, byte[][] postings,
+                             int[] docVerse, int[] docBook, int[] docChapter, int[] docNumber, int[] docLength) {
+        this.corpus = corpus;
+        this.terms = terms;
+        this.documentFrequency = documentFrequency;
+        this.postings = postings;
+        this.docVerse = docVerse;
+        this.docBook = docBook;
+        this.docChapter = docChapter;
+        this.docNumber = docNumber;
+        this.docLength = docLength;
+        long total = 0;
+        for (int length : docLength) {
+            total += length;
+        }
+        this.averageLength = docLength.length == 0 ? 1 : Math.max(1, (double) total / docLength.length);
+    }
+
+    /**
+     * Recorre todos los versículos de {@code corpus} y construye el índice.
+     */
+    public static BibleSearchIndex build(BibleCorpusFile corpus) {
+        int capacity = corpus.verseCount();
+        int[] docVerse = new int[capacity];
+        int[] docBook = new int[capacity];
+        int[] docChapter = new int[capacity];
+        int[] docNumber = new int[capacity];
+        int[] docLength = new int[capacity];
+        Map<String, PostingsWriter> writers = new HashMap<>();
+        int[] docs = {0};
+        List<String> tokens = new ArrayList<>();
+        corpus.forEachVerse((verse, book, chapter, number, text) -> {
+            int doc = docs[0]++;
+            docVerse[doc] = verse;
+            docBook[doc] = book;
+            docChapter[doc] = chapter;
+            docNumber[doc] = number;
+            tokens.clear();
+            tokenize(text, tokens);
+            docLength[doc] = tokens.size();
+            // Posiciones agrupadas por término, en orden de aparición
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                positions.computeIfAbsent(stem(tokens.get(i)), t -> new ArrayList<>(2)).add(i);
+            }
+            for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                writers.computeIfAbsent(entry.getKey(), t -> new PostingsWriter()).add(doc, entry.getValue());
+            }
+        });
+        String[] terms = writers.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[] documentFrequency = new int[terms.length];
+        byte[][] postings = new byte[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            PostingsWriter writer = writers.get(terms[i]);
+            documentFrequency[i] = writer.documents;
+            postings[i] = writer.toByteArray();
+        }
+        int n = docs[0];
+        return new BibleSearchIndex(corpus, terms, documentFrequency, postings,
+                Arrays.copyOf(docVerse, n), Arrays.copyOf(docBook, n), Arrays.copyOf(docChapter, n),
+                Arrays.copyOf(docNumber, n), Arrays.copyOf(docLength, n));
+    }
+
+    public int documentCount() {
+        return docVerse.length;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * Bytes aproximados del índice (términos, listas de apariciones y tablas por documento).
+     */
+    public long sizeInBytes() {
+        long size = (long) docVerse.length * 5 * Integer.BYTES + (long) terms.length * Integer.BYTES;
+        for (int i = 0; i < terms.length; i++) {
+            size += terms[i].length() + postings[i].length + 32;
+        }
+        return size;
+    }
+
+    /**
+     * Resuelve {@code query} y devuelve la página {@code page} (desde 0) de {@code size} resultados.
+     *
+     * @throws IllegalArgumentException si la consulta no contiene ningún término válido
+     */
+    public Page search(String query, int page, int size) {
+        List<Clause> clauses = parse(query);
+        int documents = docVerse.length;
+        float[] scores = new float[documents];
+        // Número de cláusulas cumplidas por cada documento; solo avanza si cumplió todas las anteriores
+        byte[] matched = new byte[documents];
+        for (int c = 0; c < clauses.size(); c++) {
+            clauses.get(c).collect(this, (byte) c, matched, scores);
+        }
+        byte required = (byte) clauses.size();
+        int total = 0;
+        for (int d = 0; d < documents; d++) {
+            if (matched[d] == required) {
+                total++;
+            }
+        }
+        Integer[] ranked = new Integer[total];
+        for (int d = 0, i = 0; d < documents; d++) {
+            if (matched[d] == required) {
+                ranked[i++] = d;
+            }
+        }
+        // Mayor puntuación primero; a igualdad, orden canónico
+        Arrays.sort(ranked, (a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a]) : Integer.compare(a, b));
+        List<Hit> hits = new ArrayList<>(size);
+        long from = (long) page * size;
+        for (long i = from; i < Math.min(total, from + size); i++) {
+            int d = ranked[(int) i];
+            hits.add(new Hit(docBook[d], docChapter[d], docNumber[d], corpus.text(docVerse[d]), scores[d]));
+        }
+        return new Page(total, hits);
+    }
+
+    // ---- Consulta ----
+
+    private interface Clause {
+        void collect(BibleSearchIndex index, byte clause, byte[] matched, float[] scores);
+    }
+
+    // Término suelto o prefijo: basta con que aparezca uno de los términos del rango
+    private record TermsClause(int from, int to) implements Clause {
+        @Override
+        public void collect(BibleSearchIndex index, byte clause, byte[] matched, float[] scores) {
+            for (int t = from; t < to; t++) {
+                double idf = index.idf(t);
+                PostingsReader reader = new PostingsReader(index.postings[t]);
+                while (reader.next()) {
+                    int d = reader.doc;
+                    if (matched[d] == clause || matched[d] == clause + 1) {
+                        matched[d] = (byte) (clause + 1);
+                        scores[d] += (float) index.bm25(idf, reader.frequency, d);
+                    }
+                    reader.skipPositions();
+                }
+            }
+        }
+    }
+
+    // Frase: todos los términos en posiciones consecutivas
+    private record PhraseClause(int[] termIds) implements Clause {
+        @Override
+        public void collect(BibleSearchIndex index, byte clause, byte[] matched, float[] scores) {
+            int n = termIds.length;
+            PostingsReader[] readers = new PostingsReader[n];
+            for (int i = 0; i < n; i++) {
+                readers[i] = new PostingsReader(index.postings[termIds[i]]);
+                if (!readers[i].next()) {
+                    return;
+                }
+            }
+            int[][] positions = new int[n][];
+            while (true) {
+                // Avanza todas las listas hasta el mismo documento
+                int target = readers[0].doc;
+                boolean aligned = true;
+                for (int i = 0; i < n; i++) {
+                    target = Math.max(target, readers[i].doc);
+                }
+                for (int i = 0; i < n; i++) {
+                    while (readers[i].doc < target) {
+                        readers[i].skipPositions();
+                        if (!readers[i].next()) {
+                            return;
+                        }
+                    }
+                    aligned &= readers[i].doc == target;
+                }
+                if (!aligned) {
+                    continue;
+                }
+                for (int i = 0; i < n; i++) {
+                    positions[i] = readers[i].positions();
+                }
+                int occurrences = countPhrase(positions);
+                if (occurrences > 0 && matched[target] == clause) {
+                    matched[target] = (byte) (clause + 1);
+                    for (int termId : termIds) {
+                        scores[target] += (float) index.bm25(index.idf(termId), occurrences, target);
+                    }
+                }
+                if (!readers[0].next()) {
+                    return;
+                }
+            }
+        }
+
+        private static int countPhrase(int[][] positions) {
+            int count = 0;
+            for (int start : positions[0]) {
+                boolean found = true;
+                for (int i = 1; i < positions.length && found; i++) {
+                    found = Arrays.binarySearch(positions[i], start + i) >= 0;
+                }
+                if (found) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private List<Clause> parse(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("La consulta está vacía");
+        }
+        List<Clause> clauses = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        int i = 0;
+        boolean empty = false;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = query.length();
+                }
+                words.clear();
+                tokenize(query.substring(i + 1, end), words);
+                if (!words.isEmpty()) {
+                    int[] ids = new int[words.size()];
+                    for (int w = 0; w < ids.length; w++) {
+                        ids[w] = termId(stem(words.get(w)));
+                        empty |= ids[w] < 0;
+                    }
+                    clauses.add(ids.length == 1 ? new TermsClause(Math.max(ids[0], 0), ids[0] + 1) : new PhraseClause(ids));
+                }
+                i = end + 1;
+                continue;
+            }
+            int start = i;
+            while (i < query.length() && !Character.isWhitespace(query.charAt(i)) && query.charAt(i) != '"') {
+                i++;
+            }
+            if (start == i) {
+                i++;
+                continue;
+            }
+            String word = query.substring(start, i);
+            words.clear();
+            tokenize(word, words);
+            for (int w = 0; w < words.size(); w++) {
+                String token = words.get(w);
+                if (w == words.size() - 1 && word.endsWith("*")) {
+                    if (token.length() < MIN_PREFIX_LENGTH) {
+                        throw new IllegalArgumentException("El prefijo '" + token + "*' es demasiado corto");
+                    }
+                    // El diccionario guarda términos lematizados: "cordero*" debe buscar desde "corder"
+                    String prefix = stem(token);
+                    int from = lowerBound(prefix);
+                    int to = lowerBound(prefix + Character.MAX_VALUE);
+                    empty |= from == to;
+                    clauses.add(new TermsClause(from, Math.min(to, from + MAX_PREFIX_TERMS)));
+                } else {
+                    int id = termId(stem(token));
+                    empty |= id < 0;
+                    clauses.add(new TermsClause(Math.max(id, 0), id + 1));
+                }
+            }
+        }
+        if (clauses.isEmpty()) {
+            throw new IllegalArgumentException("La consulta no contiene ninguna palabra");
+        }
+        if (clauses.size() > MAX_CLAUSES) {
+            throw new IllegalArgumentException("Máximo " + MAX_CLAUSES + " palabras o frases por consulta");
+        }
+        // Algún término no existe: ningún versículo puede cumplirlas todas
+        return empty ? List.of(new TermsClause(0, 0)) : clauses;
+    }
+
+    private int termId(String term) {
+        int i = Arrays.binarySearch(terms, term);
+        return i >= 0 ? i : -1;
+    }
+
+    private int lowerBound(String key) {
+        int i = Arrays.binarySearch(terms, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private double idf(int term) {
+        int df = documentFrequency[term];
+        return Math.log(1 + (docVerse.length - df + 0.5) / (df + 0.5));
+    }
+
+    private double bm25(double idf, int frequency, int doc) {
+        double norm = K1 * (1 - B + B * docLength[doc] / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    // ---- Texto ----
+
+    /**
+     * Divide el texto en palabras plegadas (minúsculas sin tildes); el resto de caracteres separa palabras.
+     */
+    static void tokenize(CharSequence text, List<String> out) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char folded = i < text.length() ? BibleReference.fold(text.charAt(i)) : 0;
+            if (folded != 0) {
+                word.append(folded);
+            } else if (word.length() > 0) {
+                out.add(word.toString());
+                word.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Lematizado ligero para español: quita el plural y la vocal final de palabras de cierta longitud,
+     * de modo que "hijo", "hijos", "hija" e "hijas" comparten término; "luces" queda como "luz".
+     */
+    static String stem(String word) {
+        int n = word.length();
+        if (n >= 5 && word.endsWith("s")) {
+            if (word.endsWith("eses")) {
+                word = word.substring(0, n - 2);
+            } else if (word.endsWith("ces")) {
+                word = word.substring(0, n - 3) + "z";
+            } else if (word.endsWith("os") || word.endsWith("as") || word.endsWith("es")) {
+                word = word.substring(0, n - 2);
+            } else {
+                word = word.substring(0, n - 1);
+            }
+            n = word.length();
+        }
+        if (n >= 4) {
+            char last = word.charAt(n - 1);
+            if (last == 'o' || last == 'a' || last == 'e') {
+                word = word.substring(0, n - 1);
+            }
+        }
+        return word;
+    }
+
+    // ---- Listas de apariciones ----
+
+    // Acumula las apariciones de un término durante la construcción
+    private static final class PostingsWriter {
+        private byte[] bytes = new byte[16];
+        private int length;
+        private int lastDoc = -1;
+        int documents;
+
+        void add(int doc, List<Integer> positions) {
+            writeVarInt(doc - lastDoc);
+            writeVarInt(positions.size());
+            int last = 0;
+            for (int position : positions) {
+                writeVarInt(position - last);
+                last = position;
+            }
+            lastDoc = doc;
+            documents++;
+        }
+
+        private void writeVarInt(int value) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    // Recorre una lista: next() deja doc y frequency; después hay que leer o saltar las posiciones
+    private static final class PostingsReader {
+        private final byte[] bytes;
+        private int offset;
+        int doc = -1;
+        int frequency;
+
+        PostingsReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean next() {
+            if (offset >= bytes.length) {
+                return false;
+            }
+            doc += readVarInt();
+            frequency = readVarInt();
+            return true;
+        }
+
+        void skipPositions() {
+            for (int i = 0; i < frequency; i++) {
+                while ((bytes[offset++] & 0x80) != 0) {
+                    // continúa el entero
+                }
+            }
+            frequency = 0;
+        }
+
+        int[] positions() {
+            int[] positions = new int[frequency];
+            int last = 0;
+            for (int i = 0; i < frequency; i++) {
+                last += readVarInt();
+                positions[i] = last;
+            }
+            frequency = 0;
+            return positions;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.diario_intimidad.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Búsqueda de texto sobre el corpus local: un {@link BibleSearchIndex} por traducción, construido
+ * la primera vez que se consulta o, si {@code app.bible.search.warm-up} está activo, en segundo
+ * plano al arrancar. Nunca consulta la API remota.
+ */
+@Service
+public class BibleSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BibleSearchService.class);
+
+    @Autowired
+    private LocalBibleCorpus localBibleCorpus;
+
+    @Value("${app.bible.search.warm-up:true}")
+    private boolean warmUp;
+
+    @Value("${app.bible.search.max-page-size:50}")
+    private int maxPageSize;
+
+    private final Map<String, BibleSearchIndex> indexes = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        if (!warmUp) {
+            return;
+        }
+        Flux.fromIterable(localBibleCorpus.getTranslations())
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::index)
+                .onErrorContinue((e, translation) -> logger.error("No se pudo indexar '{}'", translation, e))
+                .subscribe();
+    }
+
+    /**
+     * Página {@code page} (desde 0) de los versículos de {@code translation} que cumplen {@code query}.
+     *
+     * @throws IllegalArgumentException si la traducción no está en el corpus local o la consulta no es válida
+     */
+    public BibleSearchIndex.Page search(String query, String translation, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + maxPageSize);
+        }
+        BibleSearchIndex index = index(translation.toLowerCase());
+        if (index == null) {
+            throw new IllegalArgumentException("La traducción '" + translation + "' no está disponible para búsqueda");
+        }
+        return index.search(query, page, size);
+    }
+
+    private BibleSearchIndex index(String translation) {
+        BibleCorpusFile corpus = localBibleCorpus.corpus(translation);
+        if (corpus == null) {
+            return null;
+        }
+        return indexes.computeIfAbsent(translation, t -> {
+            long start = System.currentTimeMillis();
+            BibleSearchIndex index = BibleSearchIndex.build(corpus);
+            logger.info("Índice de búsqueda '{}': {} versículos, {} términos, ~{} KB en {} ms", t,
+                    index.documentCount(), index.termCount(), index.sizeInBytes() / 1024,
+                    System.currentTimeMillis() - start);
+            return index;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        indexes.forEach((translation, index) -> stats.put(translation, Map.of(
+                "verses", index.documentCount(),
+                "terms", index.termCount(),
+                "bytes", index.sizeInBytes())));
+        return stats;
+    }
+}
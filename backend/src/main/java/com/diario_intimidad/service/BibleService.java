@@ -0,0 +1,188 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolución de pasajes bíblicos: primero el corpus local; si la traducción o el capítulo no están
+ * en él, los pasajes ya obtenidos antes de bible_verse_cache ({@link BibleVerseStore}) y, por último,
+ * la API remota (desactivable con {@code app.bible.remote-fallback=false}).
+ */
+@Service
+public class BibleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BibleService.class);
+
+    // Capítulos como máximo por referencia ("Sal 1-150" no es una lectura del día)
+    private static final int MAX_PASSAGES = 30;
+
+    @Autowired
+    private LocalBibleCorpus localBibleCorpus;
+
+    @Autowired
+    private RemoteBibleProvider remoteBibleProvider;
+
+    @Autowired
+    private BibleVerseCache bibleVerseCache;
+
+    @Autowired
+    private BibleVerseStore bibleVerseStore;
+
+    @Value("${app.bible.remote-fallback:true}")
+    private boolean remoteFallback;
+
+    private final Map<BiblePassageKey, Mono<List<BibleVerse>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private final AtomicLong coalescedCalls = new AtomicLong();
+
+    public Mono<List<BibleVerse>> getPassage(BiblePassageKey key) {
+        Mono<List<BibleVerse>> local = localBibleCorpus.supports(key.translation()) ? localBibleCorpus.read(key) : Mono.empty();
+        Mono<List<BibleVerse>> stored = local.switchIfEmpty(Mono.defer(() -> bibleVerseStore.find(key)));
+        if (!remoteFallback) {
+            return stored;
+        }
+        return stored.switchIfEmpty(Mono.defer(() -> {
+            logger.debug("Pasaje {} no disponible en el corpus local, consultando la API remota", key);
+            return fetchRemote(key);
+        }));
+    }
+
+    /**
+     * Una sola llamada remota por pasaje en curso: las peticiones concurrentes del mismo pasaje
+     * se suscriben al mismo resultado (o al mismo error) en lugar de lanzar otra llamada.
+     */
+    private Mono<List<BibleVerse>> fetchRemote(BiblePassageKey key) {
+        boolean[] created = {false};
+        Mono<List<BibleVerse>> flight = inFlight.computeIfAbsent(key, k -> {
+            created[0] = true;
+            return remoteBibleProvider.read(k)
+                    .doOnNext(verses -> bibleVerseStore.save(k, verses))
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache();
+        });
+        if (created[0]) {
+            upstreamCalls.incrementAndGet();
+        } else {
+            coalescedCalls.incrementAndGet();
+        }
+        return flight;
+    }
+
+    public Map<String, Object> getUpstreamStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("upstreamCalls", upstreamCalls.get());
+        stats.put("coalescedCalls", coalescedCalls.get());
+        stats.put("inFlight", inFlight.size());
+        stats.put("remote", remoteBibleProvider.getStats());
+        return stats;
+    }
+
+    /**
+     * Texto de varios pasajes, unidos en orden; los que no existen se omiten.
+     */
+    public Mono<String> getText(List<BiblePassageKey> keys, boolean includeNumbers) {
+        return getVerses(keys).map(passages -> joinVerses(passages, includeNumbers));
+    }
+
+    /**
+     * Texto del pasaje tal como lo devuelve /api/bible/verse. Cadena vacía si el pasaje no existe.
+     */
+    public Mono<String> getText(BiblePassageKey key, boolean includeNumbers) {
+        return getVerses(key).map(verses -> joinVerses(List.of(verses), includeNumbers));
+    }
+
+    /**
+     * Versículos de varios pasajes, en el orden de {@code keys}; lista vacía para los que no existen.
+     */
+    public Mono<List<List<BibleVerse>>> getVerses(List<BiblePassageKey> keys) {
+        if (keys.size() == 1) {
+            return getVerses(keys.get(0)).map(List::of);
+        }
+        return Flux.fromIterable(keys).concatMap(this::getVerses).collectList();
+    }
+
+    /**
+     * Versículos del pasaje pasando por la caché de versículos; lista vacía si el pasaje no existe.
+     * Los pasajes inexistentes no se cachean, para que no ocupen sitio ni oculten una carga posterior.
+     */
+    public Mono<List<BibleVerse>> getVerses(BiblePassageKey key) {
+        return bibleVerseCache.get(key, () -> getPassage(key)).defaultIfEmpty(List.of());
+    }
+
+    /**
+     * Une los versículos separados por espacios, con su número delante si {@code includeNumbers}.
+     * El búfer se dimensiona de antemano para no copiarlo al crecer en capítulos largos.
+     */
+    public String joinVerses(List<List<BibleVerse>> passages, boolean includeNumbers) {
+        int length = 0;
+        for (List<BibleVerse> verses : passages) {
+            for (BibleVerse verse : verses) {
+                length += verse.text().length() + (includeNumbers ? 5 : 1);
+            }
+        }
+        StringBuilder textBuilder = new StringBuilder(length);
+        for (List<BibleVerse> verses : passages) {
+            for (BibleVerse verse : verses) {
+                if (verse.text().isBlank()) {
+                    continue;
+                }
+                if (textBuilder.length() > 0) {
+                    textBuilder.append(' ');
+                }
+                if (includeNumbers && verse.number() > 0) {
+                    textBuilder.append(verse.number()).append(' ');
+                }
+                textBuilder.append(verse.text().trim());
+            }
+        }
+        return textBuilder.toString();
+    }
+
+    /**
+     * Pasajes de una referencia ("Juan 3:16", "Jn 3:16-4:2; 5:1", "1 Co 13"), uno por capítulo y en orden;
+     * null si el texto no es una referencia (por ejemplo, una lectura libre) o abarca demasiados capítulos.
+     */
+    public List<BiblePassageKey> resolve(String reference, String translation) {
+        BibleReference parsed = BibleReference.parse(reference);
+        return parsed != null ? resolve(parsed, translation) : null;
+    }
+
+    /**
+     * Pasajes de una referencia ya analizada en {@code translation}; null si abarca demasiados capítulos.
+     */
+    public List<BiblePassageKey> resolve(BibleReference parsed, String translation) {
+        translation = translation.trim().toLowerCase();
+        List<BiblePassageKey> keys = new ArrayList<>();
+        for (BibleReference.Segment segment : parsed.segments()) {
+            String bookCode = BibleBooks.code(segment.book());
+            for (int chapter = segment.chapterStart(); chapter <= segment.chapterEnd(); chapter++) {
+                if (keys.size() == MAX_PASSAGES) {
+                    return null;
+                }
+                boolean first = chapter == segment.chapterStart();
+                boolean last = chapter == segment.chapterEnd();
+                if (segment.wholeChapters() || (!first && !last)) {
+                    keys.add(BiblePassageKey.chapter(translation, bookCode, chapter));
+                } else {
+                    int from = first ? segment.verseStart() : 1;
+                    int to = last ? segment.verseEnd() : BiblePassageKey.END_OF_CHAPTER;
+                    keys.add(new BiblePassageKey(translation, bookCode, chapter, from, to));
+                }
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,17 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Fuente de texto bíblico. {@link #read} completa vacío cuando el pasaje no está disponible
+ * en esta fuente, para que el llamador pueda pasar a la siguiente.
+ */
+public interface BibleTextProvider {
+
+    boolean supports(String translation);
+
+    Mono<List<BibleVerse>> read(BiblePassageKey key);
+}
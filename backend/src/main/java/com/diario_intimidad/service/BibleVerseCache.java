@@ -0,0 +1,178 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché en proceso de los versículos de cada pasaje, acotada por número de entradas. La comparten
+ * /api/bible/verse (que los une en un texto con o sin números) y /api/bible/compare.
+ * <ul>
+ *   <li>Dentro de {@code ttl} los versículos se sirven tal cual.</li>
+ *   <li>Entre {@code ttl} y {@code stale-ttl} se sirven los anteriores y se refrescan en segundo plano
+ *   (una sola recarga por entrada); si la recarga falla se conservan los anteriores.</li>
+ *   <li>Al llenarse se expulsa primero lo caducado y después la entrada menos usada; las frecuencias
+ *   se reducen a la mitad periódicamente para que las lecturas de días pasados dejen sitio.</li>
+ * </ul>
+ * Ni los errores del origen ni los pasajes que no existen (el cargador no emite nada o emite una lista
+ * vacía) se guardan.
+ */
+@Component
+public class BibleVerseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BibleVerseCache.class);
+
+    private static final class Entry {
+        final List<BibleVerse> verses;
+        final long loadedAt;
+        final AtomicInteger frequency;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(List<BibleVerse> verses, long loadedAt, int frequency) {
+            this.verses = verses;
+            this.loadedAt = loadedAt;
+            this.frequency = new AtomicInteger(frequency);
+        }
+    }
+
+    private final Map<BiblePassageKey, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    @Value("${app.bible.cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${app.bible.cache.ttl:PT12H}")
+    private Duration ttl;
+
+    @Value("${app.bible.cache.stale-ttl:P7D}")
+    private Duration staleTtl;
+
+    /**
+     * Versículos del pasaje desde la caché o, si no está o ya no es utilizable, desde {@code loader}.
+     */
+    public Mono<List<BibleVerse>> get(BiblePassageKey key, Supplier<Mono<List<BibleVerse>>> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long age = now - entry.loadedAt;
+            if (age < ttl.toMillis()) {
+                hits.incrementAndGet();
+                entry.frequency.incrementAndGet();
+                return Mono.just(entry.verses);
+            }
+            if (age < staleTtl.toMillis()) {
+                staleHits.incrementAndGet();
+                entry.frequency.incrementAndGet();
+                refresh(key, entry, loader);
+                return Mono.just(entry.verses);
+            }
+        }
+        misses.incrementAndGet();
+        int frequency = entry != null ? entry.frequency.get() + 1 : 1;
+        return loader.get().doOnNext(verses -> put(key, verses, frequency));
+    }
+
+    private void refresh(BiblePassageKey key, Entry entry, Supplier<Mono<List<BibleVerse>>> loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshes.incrementAndGet();
+        loader.get().subscribe(
+                verses -> put(key, verses, entry.frequency.get()),
+                e -> {
+                    refreshFailures.incrementAndGet();
+                    entry.refreshing.set(false);
+                    logger.warn("No se pudo refrescar {}: {}", key, e.getMessage());
+                },
+                () -> entry.refreshing.set(false));
+    }
+
+    private void put(BiblePassageKey key, List<BibleVerse> verses, int frequency) {
+        if (verses.isEmpty()) {
+            return;
+        }
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key, new Entry(List.copyOf(verses), System.currentTimeMillis(), frequency));
+    }
+
+    // Un fallo cada vez que se llena: recorrer la caché es más barato que la llamada que evita
+    private void evict() {
+        long expiredBefore = System.currentTimeMillis() - staleTtl.toMillis();
+        BiblePassageKey victim = null;
+        Entry victimEntry = null;
+        for (Map.Entry<BiblePassageKey, Entry> candidate : entries.entrySet()) {
+            Entry e = candidate.getValue();
+            if (e.loadedAt < expiredBefore) {
+                victim = candidate.getKey();
+                break;
+            }
+            if (victimEntry == null || e.frequency.get() < victimEntry.frequency.get()
+                    || (e.frequency.get() == victimEntry.frequency.get() && e.loadedAt < victimEntry.loadedAt)) {
+                victim = candidate.getKey();
+                victimEntry = e;
+            }
+        }
+        if (victim != null && entries.remove(victim) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.bible.cache.decay-interval-ms:3600000}")
+    public void decay() {
+        long expiredBefore = System.currentTimeMillis() - staleTtl.toMillis();
+        int removed = 0;
+        for (Map.Entry<BiblePassageKey, Entry> candidate : entries.entrySet()) {
+            Entry e = candidate.getValue();
+            if (e.loadedAt < expiredBefore) {
+                if (entries.remove(candidate.getKey(), e)) {
+                    removed++;
+                }
+            } else {
+                e.frequency.updateAndGet(f -> f >> 1);
+            }
+        }
+        if (removed > 0) {
+            evictions.addAndGet(removed);
+            logger.info("Caché de versículos: {} entradas caducadas eliminadas", removed);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("refreshes", refreshes.get());
+        stats.put("refreshFailures", refreshFailures.get());
+        return stats;
+    }
+}
@@ -0,0 +1,213 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleStoredPassage;
+import com.diario_intimidad.dto.BibleVerse;
+import com.diario_intimidad.repository.BibleVerseStoreRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Segundo nivel de la caché de versículos en la tabla bible_verse_cache, para que un reinicio no
+ * obligue a volver a pedir a bible-api todo lo ya consultado.
+ * <p>
+ * Los pasajes obtenidos de la API remota se encolan en memoria y un proceso programado los escribe
+ * en bloques; mientras tanto las lecturas los encuentran en la cola. Los fallos de la base de datos
+ * no afectan a la respuesta: la lectura cuenta como fallo de caché y la escritura se reintenta.
+ */
+@Service
+public class BibleVerseStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BibleVerseStore.class);
+
+    public record ImportResult(int imported, int skipped) {
+    }
+
+    @Autowired
+    private BibleVerseStoreRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.bible.store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.bible.store.batch-size:200}")
+    private int batchSize;
+
+    private final Map<BiblePassageKey, List<BibleVerse>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong readFailures = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    /**
+     * Versículos guardados del pasaje; vacío si no está o si la tabla no responde.
+     */
+    public Mono<List<BibleVerse>> find(BiblePassageKey key) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        List<BibleVerse> queued = pending.get(key);
+        if (queued != null) {
+            hits.incrementAndGet();
+            return Mono.just(queued);
+        }
+        return Mono.fromCallable(() -> repository.find(key.translation(), key.bookCode(), key.chapter(),
+                        key.verseStart(), key.verseEnd()).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(verses -> hits.incrementAndGet())
+                .switchIfEmpty(Mono.fromRunnable(misses::incrementAndGet))
+                .onErrorResume(e -> {
+                    readFailures.incrementAndGet();
+                    logger.warn("No se pudo leer {} de bible_verse_cache: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Encola el pasaje para escribirlo en el siguiente volcado.
+     */
+    public void save(BiblePassageKey key, List<BibleVerse> verses) {
+        if (enabled && !verses.isEmpty()) {
+            pending.put(key, List.copyOf(verses));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.bible.store.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        while (!pending.isEmpty()) {
+            Map<BiblePassageKey, List<BibleVerse>> batch = new LinkedHashMap<>();
+            for (Map.Entry<BiblePassageKey, List<BibleVerse>> entry : pending.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() == batchSize) {
+                    break;
+                }
+            }
+            List<BibleStoredPassage> rows = new ArrayList<>(batch.size());
+            batch.forEach((key, verses) -> rows.add(toStored(key, verses)));
+            try {
+                repository.upsertAll(rows);
+            } catch (Exception e) {
+                writeFailures.incrementAndGet();
+                logger.error("No se pudieron guardar {} pasajes en bible_verse_cache, se reintentará", rows.size(), e);
+                return;
+            }
+            // Si el pasaje se volvió a encolar durante la escritura, se queda para el siguiente volcado
+            batch.forEach(pending::remove);
+            written.addAndGet(rows.size());
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        if (!pending.isEmpty()) {
+            logger.info("Guardando {} pasajes pendientes en bible_verse_cache antes de apagar", pending.size());
+            flush();
+        }
+    }
+
+    /**
+     * Todos los pasajes guardados, incluidos los que estaban pendientes de escribir.
+     */
+    public Flux<BibleStoredPassage> exportAll() {
+        return Flux.defer(() -> {
+                    flush();
+                    return Flux.fromStream(repository::streamAll);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Carga pasajes en formato NDJSON (el de {@link #exportAll()}), en bloques de {@code batch-size}.
+     * Las líneas vacías se ignoran y las que no son válidas se cuentan como descartadas.
+     */
+    public ImportResult importFrom(InputStream input) throws IOException {
+        int imported = 0;
+        int skipped = 0;
+        int lineNumber = 0;
+        List<BibleStoredPassage> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            BibleStoredPassage passage;
+            try {
+                passage = normalize(objectMapper.readValue(line, BibleStoredPassage.class));
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Importación de bible_verse_cache: línea {} descartada: {}", lineNumber, e.getMessage());
+                skipped++;
+                continue;
+            }
+            batch.add(passage);
+            if (batch.size() == batchSize) {
+                repository.upsertAll(batch);
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+        repository.upsertAll(batch);
+        imported += batch.size();
+        logger.info("Importación de bible_verse_cache: {} pasajes importados, {} descartados", imported, skipped);
+        return new ImportResult(imported, skipped);
+    }
+
+    private static BibleStoredPassage normalize(BibleStoredPassage passage) {
+        if (passage.translation() == null || passage.translation().isBlank()) {
+            throw new IllegalArgumentException("falta la traducción");
+        }
+        if (passage.bookCode() == null || BibleBooks.indexOf(passage.bookCode()) < 0) {
+            throw new IllegalArgumentException("libro desconocido: " + passage.bookCode());
+        }
+        if (passage.chapter() < 1 || passage.verseStart() < 0 || passage.verseEnd() < passage.verseStart()) {
+            throw new IllegalArgumentException("capítulo o versículos no válidos");
+        }
+        if (passage.verses() == null || passage.verses().isEmpty()) {
+            throw new IllegalArgumentException("el pasaje no tiene versículos");
+        }
+        return new BibleStoredPassage(passage.translation().trim().toLowerCase(),
+                BibleBooks.code(BibleBooks.indexOf(passage.bookCode())), passage.chapter(),
+                passage.verseStart(), passage.verseEnd(), passage.verses());
+    }
+
+    private static BibleStoredPassage toStored(BiblePassageKey key, List<BibleVerse> verses) {
+        return new BibleStoredPassage(key.translation(), key.bookCode(), key.chapter(), key.verseStart(), key.verseEnd(), verses);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", pending.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("readFailures", readFailures.get());
+        stats.put("written", written.get());
+        stats.put("writeFailures", writeFailures.get());
+        return stats;
+    }
+}
@@ -0,0 +1,162 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.entity.DiaMaestro;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.MesMaestro;
+import com.diario_intimidad.repository.DiaMaestroRepository;
+import com.diario_intimidad.repository.DiarioAnualRepository;
+import com.diario_intimidad.repository.MesMaestroRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Índice en memoria de DiarioAnual / MesMaestro / DiaMaestro por [año][mes][día].
+ * Los datos maestros cambian pocas veces al año, así que se cargan completos y se
+ * sustituyen de forma atómica por una copia nueva tras cada escritura.
+ */
+@Component
+public class CalendarIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalendarIndex.class);
+
+    @Autowired
+    private DiarioAnualRepository diarioAnualRepository;
+
+    @Autowired
+    private MesMaestroRepository mesMaestroRepository;
+
+    @Autowired
+    private DiaMaestroRepository diaMaestroRepository;
+
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.error("No se pudo cargar el índice de calendario al arrancar, se reintentará en la primera consulta", e);
+        }
+    }
+
+    /**
+     * Recarga todos los datos maestros y publica la nueva copia de una sola vez.
+     */
+    public synchronized void refresh() {
+        Map<Integer, DiarioAnual> diarios = new HashMap<>();
+        for (DiarioAnual diario : diarioAnualRepository.findAll()) {
+            diarios.put(diario.getAnio(), diario);
+        }
+
+        Map<Integer, DiaMaestro[][]> dias = new HashMap<>();
+        for (MesMaestro mes : mesMaestroRepository.findAllWithDiarioAnual()) {
+            DiaMaestro[][] meses = dias.computeIfAbsent(mes.getDiarioAnual().getAnio(), a -> new DiaMaestro[13][]);
+            if (validMes(mes.getMesNumero())) {
+                meses[mes.getMesNumero()] = new DiaMaestro[32];
+            }
+        }
+        int total = 0;
+        int sinReferencia = 0;
+        List<String> ejemplos = new ArrayList<>();
+        for (DiaMaestro dia : diaMaestroRepository.findAllWithMesMaestro()) {
+            MesMaestro mes = dia.getMesMaestro();
+            DiaMaestro[][] meses = dias.get(mes.getDiarioAnual().getAnio());
+            if (meses == null || !validMes(mes.getMesNumero()) || !validDia(dia.getDiaNumero())) {
+                continue;
+            }
+            meses[mes.getMesNumero()][dia.getDiaNumero()] = dia;
+            total++;
+            for (String lectura : new String[]{dia.getLecturaBiblica(), dia.getVersiculoDiario()}) {
+                if (lectura != null && !lectura.isBlank() && BibleReference.parse(lectura) == null) {
+                    if (sinReferencia++ < 3) {
+                        ejemplos.add(lectura);
+                    }
+                }
+            }
+        }
+        if (sinReferencia > 0) {
+            // Se muestran como texto de lectura en lugar de consultar el pasaje
+            logger.warn("{} lecturas del calendario no son referencias bíblicas reconocibles, p. ej. {}", sinReferencia, ejemplos);
+        }
+
+        Map<Integer, Anio> anios = new HashMap<>();
+        for (Map.Entry<Integer, DiarioAnual> entry : diarios.entrySet()) {
+            DiaMaestro[][] meses = dias.getOrDefault(entry.getKey(), new DiaMaestro[13][]);
+            anios.put(entry.getKey(), new Anio(entry.getValue(), meses));
+        }
+        snapshot = new Snapshot(Map.copyOf(anios));
+        logger.info("Índice de calendario cargado: {} diarios, {} días", anios.size(), total);
+    }
+
+    public Optional<DiarioAnual> findDiario(int anio) {
+        Anio entry = current().anios().get(anio);
+        return entry != null ? Optional.of(entry.diario()) : Optional.empty();
+    }
+
+    public boolean hasMes(int anio, int mes) {
+        Anio entry = current().anios().get(anio);
+        return entry != null && validMes(mes) && entry.dias()[mes] != null;
+    }
+
+    public Optional<DiaMaestro> findDia(int anio, int mes, int dia) {
+        Anio entry = current().anios().get(anio);
+        if (entry == null || !validMes(mes) || !validDia(dia) || entry.dias()[mes] == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry.dias()[mes][dia]);
+    }
+
+    /**
+     * Días maestros del mes en orden de día; lista vacía si el mes no existe.
+     */
+    public List<DiaMaestro> findDiasDelMes(int anio, int mes) {
+        Anio entry = current().anios().get(anio);
+        if (entry == null || !validMes(mes) || entry.dias()[mes] == null) {
+            return List.of();
+        }
+        List<DiaMaestro> result = new ArrayList<>(31);
+        for (DiaMaestro dia : entry.dias()[mes]) {
+            if (dia != null) {
+                result.add(dia);
+            }
+        }
+        return result;
+    }
+
+    public Optional<DiaMaestro> findDia(LocalDate fecha) {
+        return findDia(fecha.getYear(), fecha.getMonthValue(), fecha.getDayOfMonth());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static boolean validMes(Integer mes) {
+        return mes != null && mes >= 1 && mes <= 12;
+    }
+
+    private static boolean validDia(Integer dia) {
+        return dia != null && dia >= 1 && dia <= 31;
+    }
+
+    // dias[mes][dia]; dias[mes] es null cuando el diario no tiene ese MesMaestro
+    private record Anio(DiarioAnual diario, DiaMaestro[][] dias) {}
+
+    private record Snapshot(Map<Integer, Anio> anios) {}
+}
@@ -0,0 +1,79 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.entity.CamposDiario;
+import com.diario_intimidad.repository.CamposDiarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Esquema de CamposDiario por diario: lista ordenada, mapa id→campo y conjunto de requeridos.
+ * Los campos se definen una vez por año, así que el esquema se carga una vez y se sirve desde memoria
+ * hasta que se invalida; cada carga lleva una versión nueva para distinguir esquemas sustituidos.
+ */
+@Component
+public class CamposDiarioCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CamposDiarioCache.class);
+
+    @Autowired
+    private CamposDiarioRepository camposDiarioRepository;
+
+    private final Map<Long, Esquema> esquemas = new ConcurrentHashMap<>();
+
+    private final AtomicLong versiones = new AtomicLong();
+
+    public Esquema getEsquema(Long diarioId) {
+        return esquemas.computeIfAbsent(diarioId, this::load);
+    }
+
+    public Set<Long> getCampoIds(Long diarioId) {
+        return getEsquema(diarioId).porId().keySet();
+    }
+
+    /**
+     * Ids de los campos marcados como requeridos; vacío si el diario no tiene ninguno.
+     */
+    public Set<Long> getRequeridoIds(Long diarioId) {
+        return getEsquema(diarioId).requeridos();
+    }
+
+    public void invalidate(Long diarioId) {
+        Esquema anterior = esquemas.remove(diarioId);
+        if (anterior != null) {
+            logger.info("Esquema de campos del diario {} invalidado (versión {})", diarioId, anterior.version());
+        }
+    }
+
+    private Esquema load(Long diarioId) {
+        List<Campo> campos = new ArrayList<>();
+        Map<Long, Campo> porId = new HashMap<>();
+        Set<Long> requeridos = new HashSet<>();
+        for (CamposDiario entity : camposDiarioRepository.findByDiarioAnualIdOrderByOrdenAsc(diarioId)) {
+            Campo campo = new Campo(entity.getId(), entity.getNombreCampo(), entity.getTipoEntrada(), entity.getOrden(),
+                    Boolean.TRUE.equals(entity.getEsRequerido()));
+            campos.add(campo);
+            porId.put(campo.id(), campo);
+            if (campo.esRequerido()) {
+                requeridos.add(campo.id());
+            }
+        }
+        Esquema esquema = new Esquema(versiones.incrementAndGet(), List.copyOf(campos), Map.copyOf(porId), Set.copyOf(requeridos));
+        logger.info("Esquema de campos del diario {} cargado: {} campos, versión {}", diarioId, campos.size(), esquema.version());
+        return esquema;
+    }
+
+    public record Campo(Long id, String nombreCampo, String tipoEntrada, Integer orden, boolean esRequerido) {}
+
+    public record Esquema(long version, List<Campo> campos, Map<Long, Campo> porId, Set<Long> requeridos) {}
+}
@@ -1,28 +1,40 @@
 package com.diario_intimidad.service;
 
 import com.diario_intimidad.dto.CalendarEntryResponse;
+import com.diario_intimidad.dto.CampoDiarioResponse;
+import com.diario_intimidad.dto.DailyEntryRequest;
+import com.diario_intimidad.dto.DiaCalendarioResponse;
+import com.diario_intimidad.dto.DiarioResumen;
+import com.diario_intimidad.dto.EntradaResumen;
+import com.diario_intimidad.dto.ValorCampoResponse;
 import com.diario_intimidad.entity.*;
 import com.diario_intimidad.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class DailyEntryService {
 
     private static final Logger logger = LoggerFactory.getLogger(DailyEntryService.class);
 
-    @Autowired
-    private DiaMaestroRepository diaMaestroRepository;
+    private static final BigDecimal CIEN = new BigDecimal("100.00");
 
     @Autowired
-    private DiarioAnualRepository diarioAnualRepository;
+    private DiaMaestroRepository diaMaestroRepository;
 
     @Autowired
     private CamposDiarioRepository camposDiarioRepository;
@@ -34,10 +46,16 @@ public class DailyEntryService {
     private ValoresCampoRepository valoresCampoRepository;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private EntradaDiariaBatchRepository entradaDiariaBatchRepository;
 
     @Autowired
-    private MesMaestroRepository mesMaestroRepository;
+    private CalendarIndex calendarIndex;
+
+    @Autowired
+    private CamposDiarioCache camposDiarioCache;
+
+    @Autowired
+    private ProgresoService progresoService;
 
     public Optional<DiaMaestro> getDiaMaestroForToday() {
         LocalDate today = LocalDate.now();
@@ -45,26 +63,14 @@ public class DailyEntryService {
     }
 
     public Optional<DiaMaestro> getDiaMaestroForDate(int anio, int mes, int dia) {
-        logger.info("Buscando DiaMaestro para anio={}, mes={}, dia={}", anio, mes, dia);
-        // Buscar el diario anual del año especificado
-        Optional<DiarioAnual> diario = diarioAnualRepository.findByAnio(anio);
-        logger.info("Diario encontrado: {}", diario.isPresent() ? diario.get().getId() : "ninguno");
-        if (diario.isEmpty()) return Optional.empty();
-
-        // Buscar el mes maestro del diario y mes especificado
-        Optional<MesMaestro> mesMaestro = mesMaestroRepository.findByDiarioAnualIdAndMesNumero(diario.get().getId(), mes);
-        logger.info("MesMaestro encontrado: {}", mesMaestro.isPresent() ? mesMaestro.get().getId() : "ninguno");
-        if (mesMaestro.isEmpty()) return Optional.empty();
-
-        // Buscar el día maestro del mes y día especificado
-        Optional<DiaMaestro> diaMaestro = diaMaestroRepository.findByMesMaestroIdAndDiaNumero(mesMaestro.get().getId(), dia);
-        logger.info("DiaMaestro encontrado: {}", diaMaestro.isPresent() ? diaMaestro.get().getId() : "ninguno");
+        Optional<DiaMaestro> diaMaestro = calendarIndex.findDia(anio, mes, dia);
+        logger.info("DiaMaestro para anio={}, mes={}, dia={}: {}", anio, mes, dia, diaMaestro.isPresent() ? diaMaestro.get().getId() : "ninguno");
         return diaMaestro;
     }
 
     public List<CamposDiario> getCamposDiario() {
         // Asumir diario_id = 1
-        return camposDiarioRepository.findByDiarioAnualIdOrderByOrdenAsc(1L);
+        return getCamposDiarioForDiario(1L);
     }
 
     public List<CamposDiario> getCamposDiarioForDiario(Long diarioId) {
@@ -79,90 +85,190 @@ public class DailyEntryService {
         return valoresCampoRepository.save(valoresCampo);
     }
 
+    /**
+     * Guarda la entrada del usuario para la fecha y reemplaza sus valores en una sola transacción:
+     * upsert de entrada_diaria, batch de upserts de valores_campo y borrado de los valores que ya no vienen.
+     */
+    @Transactional
+    public Long guardarEntrada(Usuario usuario, LocalDate fecha, List<DailyEntryRequest.CampoValor> valores) {
+        DiaMaestro diaMaestro = resolverDiaMaestro(fecha);
+        Long diarioId = diaMaestro.getMesMaestro().getDiarioAnual().getId();
+        Set<Long> recibidos = validarCampos(diarioId, valores);
+
+        BigDecimal estadoLlenado = calcularLlenado(diarioId, valores);
+        boolean completado = estadoLlenado.compareTo(CIEN) == 0;
+        Long entradaId = entradaDiariaBatchRepository.upsertEntrada(usuario.getId(), diarioId, diaMaestro.getId(), fecha,
+                estadoLlenado, completado);
+        entradaDiariaBatchRepository.upsertValores(entradaId, valores);
+        int eliminados = entradaDiariaBatchRepository.deleteValoresExcept(entradaId, recibidos);
+        progresoService.registrarDia(usuario.getId(), diaMaestro.getMesMaestro().getDiarioAnual(), fecha, completado);
+        logger.info("Entrada {} guardada para usuario {}: {} valores, {} eliminados, llenado {}%", entradaId, usuario.getEmail(),
+                valores.size(), eliminados, estadoLlenado);
+        return entradaId;
+    }
+
+    /**
+     * Porcentaje de campos requeridos con contenido; si el diario no marca ninguno como requerido, cuentan todos.
+     */
+    BigDecimal calcularLlenado(Long diarioId, List<DailyEntryRequest.CampoValor> valores) {
+        Set<Long> requeridos = camposDiarioCache.getRequeridoIds(diarioId);
+        if (requeridos.isEmpty()) {
+            requeridos = camposDiarioCache.getCampoIds(diarioId);
+        }
+        if (requeridos.isEmpty()) {
+            return CIEN;
+        }
+        // Ids distintos: un campo repetido no puede contar dos veces
+        Set<Long> llenos = new HashSet<>();
+        for (DailyEntryRequest.CampoValor cv : valores) {
+            if (requeridos.contains(cv.getCampoDiarioId()) && tieneContenido(cv)) {
+                llenos.add(cv.getCampoDiarioId());
+            }
+        }
+        return BigDecimal.valueOf(llenos.size() * 100L).divide(BigDecimal.valueOf(requeridos.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean tieneContenido(DailyEntryRequest.CampoValor cv) {
+        return (cv.getValorTexto() != null && !cv.getValorTexto().isBlank())
+                || (cv.getValorAudioUrl() != null && !cv.getValorAudioUrl().isBlank());
+    }
+
+    /**
+     * Escribe los valores de un borrador sin marcar la entrada como completada ni borrar otros campos.
+     */
+    @Transactional
+    public Long guardarBorrador(Long usuarioId, Long diarioId, Long diaMaestroId, LocalDate fecha, List<DailyEntryRequest.CampoValor> valores) {
+        Long entradaId = entradaDiariaBatchRepository.ensureEntrada(usuarioId, diarioId, diaMaestroId, fecha);
+        entradaDiariaBatchRepository.upsertValores(entradaId, valores);
+        return entradaId;
+    }
+
+    /**
+     * Comprueba que todos los campos pertenecen al diario y no se repiten, y devuelve sus ids.
+     */
+    public Set<Long> validarCampos(Long diarioId, List<DailyEntryRequest.CampoValor> valores) {
+        Set<Long> campoIds = camposDiarioCache.getCampoIds(diarioId);
+        Set<Long> recibidos = new HashSet<>();
+        for (DailyEntryRequest.CampoValor cv : valores) {
+            if (cv.getCampoDiarioId() == null || !campoIds.contains(cv.getCampoDiarioId())) {
+                throw new IllegalArgumentException("Campo diario no encontrado: " + cv.getCampoDiarioId());
+            }
+            if (!recibidos.add(cv.getCampoDiarioId())) {
+                throw new IllegalArgumentException("Campo diario repetido: " + cv.getCampoDiarioId());
+            }
+        }
+        return recibidos;
+    }
+
+    public DiaMaestro resolverDiaMaestro(LocalDate fecha) {
+        int anio = fecha.getYear();
+        int mes = fecha.getMonthValue();
+        if (calendarIndex.findDiario(anio).isEmpty()) {
+            throw new IllegalArgumentException("Diario anual no encontrado para el año " + anio);
+        }
+        if (!calendarIndex.hasMes(anio, mes)) {
+            throw new IllegalArgumentException("Mes maestro no encontrado para el mes " + mes);
+        }
+        return calendarIndex.findDia(fecha)
+                .orElseThrow(() -> new IllegalArgumentException("Dia maestro no encontrado para el día " + fecha.getDayOfMonth()));
+    }
+
     public EntradaDiaria findEntradaById(Long id) {
         return entradaDiariaRepository.findById(id).orElse(null);
     }
 
-    public List<ValoresCampo> getValoresByEntrada(Long entradaId) {
-        return valoresCampoRepository.findByEntradaDiariaId(entradaId);
+    /**
+     * Valores de la entrada si pertenece al usuario; vacío si no existe o es de otro usuario.
+     */
+    public Optional<List<ValorCampoResponse>> getValoresByEntrada(Long usuarioId, Long entradaId) {
+        if (!entradaDiariaRepository.existsByIdAndUsuarioId(entradaId, usuarioId)) {
+            return Optional.empty();
+        }
+        return Optional.of(valoresCampoRepository.findResponseByEntradaDiariaId(entradaId));
+    }
+
+    public List<EntradaResumen> getEntradasByUsuarioAndMes(Long usuarioId, Integer anio, Integer mes) {
+        LocalDate start = LocalDate.of(anio, mes, 1);
+        LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
+        return entradaDiariaRepository.findResumenByUsuarioIdAndFechaEntradaBetween(usuarioId, start, end);
     }
 
-    public List<EntradaDiaria> getEntradasByUsuarioAndMes(Long usuarioId, Integer anio, Integer mes) {
+    /**
+     * Días del mes con sus datos maestros y el estado de la entrada del usuario.
+     * Los datos maestros salen de CalendarIndex; las entradas, de una sola consulta por rango de fechas.
+     */
+    public List<DiaCalendarioResponse> getMonthData(Long usuarioId, int anio, int mes) {
+        List<DiaMaestro> dias = calendarIndex.findDiasDelMes(anio, mes);
+        if (dias.isEmpty()) {
+            return List.of();
+        }
         LocalDate start = LocalDate.of(anio, mes, 1);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
-        return entradaDiariaRepository.findByUsuarioIdAndFechaEntradaBetween(usuarioId, start, end);
+        Map<Long, EntradaResumen> entradas = new HashMap<>();
+        for (EntradaResumen entrada : entradaDiariaRepository.findResumenByUsuarioIdAndFechaEntradaBetween(usuarioId, start, end)) {
+            entradas.put(entrada.diaMaestroId(), entrada);
+        }
+
+        List<DiaCalendarioResponse> result = new ArrayList<>(dias.size());
+        for (DiaMaestro dia : dias) {
+            DiaCalendarioResponse item = new DiaCalendarioResponse();
+            item.setFecha(LocalDate.of(anio, mes, dia.getDiaNumero()));
+            item.setDiaNumero(dia.getDiaNumero());
+            item.setDiaMaestroId(dia.getId());
+            item.setTipoDia(dia.getTipoDia() != null ? dia.getTipoDia().name() : null);
+            item.setLecturaBiblica(dia.getLecturaBiblica());
+            item.setVersiculoDiario(dia.getVersiculoDiario());
+            EntradaResumen entrada = entradas.get(dia.getId());
+            if (entrada != null) {
+                item.setEntradaId(entrada.id());
+                item.setCompletado(Boolean.TRUE.equals(entrada.completado()));
+                item.setEstadoLlenado(entrada.estadoLlenado());
+            }
+            result.add(item);
+        }
+        return result;
     }
 
     public CalendarEntryResponse getTodayData(LocalDate date, Long userId) {
-        System.out.println("DailyEntryService.getTodayData called with date: " + date + ", userId: " + userId);
         logger.info("getTodayData called with date: {}, userId: {}", date, userId);
 
         Optional<DiaMaestro> diaMaestro = getDiaMaestroForDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
         if (diaMaestro.isEmpty()) {
             logger.warn("No DiaMaestro found for date: {}, showing default verse", date);
             // Para fechas sin DiaMaestro, devolver response con versículo por defecto
-            CalendarEntryResponse response = new CalendarEntryResponse();
-            response.setFecha(date);
-            response.setTipoDia("NORMAL");
-            response.setLecturaBiblica(null);
-            response.setVersiculoDiario("Juan 3:16");
-            response.setVersiculoReference("Juan 3:16");
-            response.setDiarioAnual(null);
-            response.setCamposDiario(new ArrayList<>()); // vacío
-            response.setValoresCampo(null);
-            return response;
-        }
-        logger.info("DiaMaestro found: {}", diaMaestro.get().getId());
-
-        DiarioAnual diarioAnual = diaMaestro.get().getMesMaestro().getDiarioAnual();
-        logger.info("DiarioAnual: {}", diarioAnual.getTitulo());
-
-        List<CamposDiario> camposDiario = getCamposDiarioForDiario(diarioAnual.getId());
-        logger.info("CamposDiario count: {}", camposDiario.size());
-
-        CalendarEntryResponse response = new CalendarEntryResponse();
-        response.setFecha(date);
-        response.setTipoDia(diaMaestro.get().getTipoDia().name());
-        response.setLecturaBiblica(diaMaestro.get().getLecturaBiblica());
-        String versiculoReference;
-        String tipoDia = diaMaestro.get().getTipoDia().name();
-        if (tipoDia.equals("NORMAL")) {
-            versiculoReference = diaMaestro.get().getLecturaBiblica();
-        } else if (tipoDia.equals("DOMINGO")) {
-            versiculoReference = diaMaestro.get().getVersiculoDiario();
-        } else {
-            versiculoReference = diaMaestro.get().getVersiculoDiario();
+            return new CalendarEntryResponse(date, "NORMAL", null, "Juan 3:16", "Juan 3:16", null, List.of(), null);
         }
+
+        DiaMaestro dia = diaMaestro.get();
+        DiarioAnual diarioAnual = dia.getMesMaestro().getDiarioAnual();
+        String versiculoReference = dia.getTipoDia() == DiaMaestro.TipoDia.NORMAL ? dia.getLecturaBiblica() : dia.getVersiculoDiario();
         if (versiculoReference == null || versiculoReference.isEmpty()) {
             versiculoReference = "Juan 3:16";
         }
-        response.setVersiculoDiario(versiculoReference); // Para compatibilidad
-        response.setVersiculoReference(versiculoReference);
-        response.setDiarioAnual(diarioAnual);
-        response.setCamposDiario(camposDiarioRepository.findByDiarioAnualIdOrderByOrdenAsc(diarioAnual.getId()));
-        logger.info("CamposDiario set: {}", response.getCamposDiario().size());
-
-        // Load existing valores if any
-        if (userId != null && diaMaestro.isPresent()) {
-            // Find existing entry by usuario and diaMaestro to ensure uniqueness
-            Usuario usuario = usuarioRepository.findById(userId).orElse(null);
-            if (usuario != null) {
-                Optional<EntradaDiaria> existing = entradaDiariaRepository.findByUsuarioAndDiaMaestro(usuario, diaMaestro.get());
-                if (existing.isPresent()) {
-                    List<ValoresCampo> valores = valoresCampoRepository.findByEntradaDiariaId(existing.get().getId());
-                    response.setValoresCampo(valores);
-                    logger.info("ValoresCampo loaded: {}", valores.size());
-                } else {
-                    logger.info("No existing EntradaDiaria for userId: {}, diaMaestro: {}", userId, diaMaestro.get().getId());
-                }
-            } else {
-                logger.warn("Usuario not found for userId: {}", userId);
+        DiarioResumen diario = new DiarioResumen(diarioAnual.getId(), diarioAnual.getAnio(), diarioAnual.getTitulo(),
+                diarioAnual.getNombreLogo(), diarioAnual.getNombrePortada());
+
+        // Campos desde el esquema en memoria; solo los valores del usuario requieren consulta
+        CamposDiarioCache.Esquema esquema = camposDiarioCache.getEsquema(diarioAnual.getId());
+        Map<Long, ValorCampoResponse> valoresPorCampo = new HashMap<>();
+        if (userId != null) {
+            for (ValorCampoResponse valor : valoresCampoRepository.findValoresDelDia(userId, dia.getId())) {
+                valoresPorCampo.put(valor.campoDiarioId(), valor);
+            }
+        }
+        List<CampoDiarioResponse> campos = new ArrayList<>(esquema.campos().size());
+        List<ValorCampoResponse> valores = new ArrayList<>();
+        for (CamposDiarioCache.Campo c : esquema.campos()) {
+            campos.add(new CampoDiarioResponse(c.id(), c.nombreCampo(), c.tipoEntrada(), c.orden(), c.esRequerido()));
+            ValorCampoResponse valor = valoresPorCampo.get(c.id());
+            if (valor != null) {
+                valores.add(valor);
             }
-        } else {
-            logger.warn("userId is null or diaMaestro not present");
         }
 
-        logger.info("Response ready: camposDiario={}, valoresCampo={}", response.getCamposDiario().size(), response.getValoresCampo() != null ? response.getValoresCampo().size() : 0);
-        return response;
+        logger.info("Response ready: camposDiario={}, valoresCampo={}", campos.size(), valores.size());
+        // versiculoDiario repite la referencia por compatibilidad
+        return new CalendarEntryResponse(date, dia.getTipoDia().name(), dia.getLecturaBiblica(), versiculoReference,
+                versiculoReference, diario, campos, valores.isEmpty() ? null : valores);
     }
-}
\ No newline at end of file
+}
@@ -13,6 +13,9 @@ public class DiaMaestroService {
     @Autowired
     private DiaMaestroRepository diaMaestroRepository;
 
+    @Autowired
+    private CalendarIndex calendarIndex;
+
     public List<DiaMaestro> findAll() {
         return diaMaestroRepository.findAll();
     }
@@ -26,11 +29,14 @@ public class DiaMaestroService {
     }
 
     public DiaMaestro save(DiaMaestro diaMaestro) {
-        return diaMaestroRepository.save(diaMaestro);
+        DiaMaestro saved = diaMaestroRepository.save(diaMaestro);
+        calendarIndex.refresh();
+        return saved;
     }
 
     public void deleteById(Long id) {
         diaMaestroRepository.deleteById(id);
+        calendarIndex.refresh();
     }
 
 }
\ No newline at end of file
@@ -17,6 +17,12 @@ public class DiarioAnualService {
     @Autowired
     private DiarioAnualRepository diarioAnualRepository;
 
+    @Autowired
+    private CalendarIndex calendarIndex;
+
+    @Autowired
+    private CamposDiarioCache camposDiarioCache;
+
     public List<DiarioAnual> findAll() {
         logger.info("Finding all DiarioAnual entities");
         List<DiarioAnual> diarios = diarioAnualRepository.findAll();
@@ -40,6 +46,8 @@ public class DiarioAnualService {
         try {
             DiarioAnual saved = diarioAnualRepository.save(diarioAnual);
             logger.info("Successfully saved DiarioAnual: id={}, anio={}", saved.getId(), saved.getAnio());
+            calendarIndex.refresh();
+            camposDiarioCache.invalidate(saved.getId());
             return saved;
         } catch (Exception e) {
             logger.error("Error saving DiarioAnual: id={}, anio={}, error={}", diarioAnual.getId(), diarioAnual.getAnio(), e.getMessage(), e);
@@ -51,6 +59,8 @@ public class DiarioAnualService {
         logger.info("Deleting DiarioAnual by id: {}", id);
         diarioAnualRepository.deleteById(id);
         logger.info("Deleted DiarioAnual with id: {}", id);
+        calendarIndex.refresh();
+        camposDiarioCache.invalidate(id);
     }
 
 }
\ No newline at end of file
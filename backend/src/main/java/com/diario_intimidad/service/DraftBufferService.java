@@ -0,0 +1,173 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.DailyEntryRequest;
+import com.diario_intimidad.entity.DiaMaestro;
+import com.diario_intimidad.entity.Usuario;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffer en memoria para el autoguardado de borradores de la entrada diaria.
+ * Las actualizaciones parciales se acumulan por (usuario, DiaMaestro) y un proceso programado
+ * las vuelca a valores_campo cuando el usuario deja de escribir o el borrador supera su edad máxima.
+ */
+@Service
+public class DraftBufferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DraftBufferService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private DailyEntryService dailyEntryService;
+
+    @Value("${app.draft.idle-ms:3000}")
+    private long idleMs;
+
+    @Value("${app.draft.max-age-ms:15000}")
+    private long maxAgeMs;
+
+    private final ConcurrentHashMap<DraftKey, Draft> buffer = new ConcurrentHashMap<>();
+
+    // Serializa volcados y guardados explícitos de la misma clave para que un borrador antiguo no pise un guardado
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public DraftBufferService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Acumula una actualización parcial; los campos repetidos se quedan con el último valor.
+     */
+    public void bufferDraft(Usuario usuario, LocalDate fecha, List<DailyEntryRequest.CampoValor> valores) {
+        DiaMaestro dia = dailyEntryService.resolverDiaMaestro(fecha);
+        Long diarioId = dia.getMesMaestro().getDiarioAnual().getId();
+        dailyEntryService.validarCampos(diarioId, valores);
+
+        DraftKey key = new DraftKey(usuario.getId(), dia.getId());
+        long now = System.currentTimeMillis();
+        buffer.compute(key, (k, draft) -> {
+            Draft target = draft != null ? draft : new Draft(diarioId, fecha, now);
+            target.merge(valores, now);
+            return target;
+        });
+    }
+
+    /**
+     * Vuelca el borrador pendiente y guarda la entrada completa, sin que un volcado programado se intercale.
+     * Si el volcado falla el borrador se descarta: el guardado explícito lo sustituye y reintentarlo después
+     * pisaría los valores recién guardados.
+     */
+    public Long guardarEntrada(Usuario usuario, LocalDate fecha, List<DailyEntryRequest.CampoValor> valores) {
+        DiaMaestro dia = dailyEntryService.resolverDiaMaestro(fecha);
+        DraftKey key = new DraftKey(usuario.getId(), dia.getId());
+        synchronized (lockFor(key)) {
+            Draft pending = buffer.get(key);
+            if (pending != null) {
+                flush(key, pending, false);
+            }
+            return dailyEntryService.guardarEntrada(usuario, fecha, valores);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.draft.flush-interval-ms:2000}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<DraftKey, Draft> entry : buffer.entrySet()) {
+            if (entry.getValue().isDue(now, idleMs, maxAgeMs)) {
+                synchronized (lockFor(entry.getKey())) {
+                    flush(entry.getKey(), entry.getValue(), true);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        logger.info("Volcando {} borradores pendientes antes de apagar", buffer.size());
+        for (Map.Entry<DraftKey, Draft> entry : buffer.entrySet()) {
+            synchronized (lockFor(entry.getKey())) {
+                flush(entry.getKey(), entry.getValue(), true);
+            }
+        }
+    }
+
+    // requeue: si falla, el borrador vuelve al buffer para el siguiente volcado programado
+    private void flush(DraftKey key, Draft draft, boolean requeue) {
+        // Solo quien retira el borrador del mapa lo escribe; las ediciones posteriores crean uno nuevo
+        if (!buffer.remove(key, draft)) {
+            return;
+        }
+        List<DailyEntryRequest.CampoValor> valores = draft.valores();
+        try {
+            dailyEntryService.guardarBorrador(key.usuarioId(), draft.diarioId, key.diaMaestroId(), draft.fecha, valores);
+            logger.debug("Borrador volcado: usuario={}, diaMaestro={}, campos={}", key.usuarioId(), key.diaMaestroId(), valores.size());
+        } catch (Exception e) {
+            if (!requeue) {
+                logger.warn("Error al volcar borrador de usuario {} para diaMaestro {}, se descarta por el guardado explícito",
+                        key.usuarioId(), key.diaMaestroId(), e);
+                return;
+            }
+            logger.error("Error al volcar borrador de usuario {} para diaMaestro {}, se reintentará", key.usuarioId(), key.diaMaestroId(), e);
+            buffer.merge(key, draft, (actual, fallido) -> {
+                actual.absorbOlder(fallido);
+                return actual;
+            });
+        }
+    }
+
+    private Object lockFor(DraftKey key) {
+        return locks[(key.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    private record DraftKey(Long usuarioId, Long diaMaestroId) {}
+
+    // Se modifica solo dentro de buffer.compute/merge, que bloquean la clave
+    private static final class Draft {
+        private final Long diarioId;
+        private final LocalDate fecha;
+        private final long createdAt;
+        private volatile long updatedAt;
+        private final Map<Long, DailyEntryRequest.CampoValor> valores = new LinkedHashMap<>();
+
+        Draft(Long diarioId, LocalDate fecha, long createdAt) {
+            this.diarioId = diarioId;
+            this.fecha = fecha;
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+
+        void merge(List<DailyEntryRequest.CampoValor> cambios, long now) {
+            for (DailyEntryRequest.CampoValor cv : cambios) {
+                valores.put(cv.getCampoDiarioId(), cv);
+            }
+            updatedAt = now;
+        }
+
+        void absorbOlder(Draft older) {
+            older.valores.forEach(valores::putIfAbsent);
+        }
+
+        boolean isDue(long now, long idleMs, long maxAgeMs) {
+            return now - updatedAt >= idleMs || now - createdAt >= maxAgeMs;
+        }
+
+        List<DailyEntryRequest.CampoValor> valores() {
+            return new ArrayList<>(valores.values());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.diario_intimidad.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubos fijos en milisegundos, seguro para hilos y sin reservas por muestra.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final LongAdder totalMs = new LongAdder();
+
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && millis > BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        totalMs.add(millis);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Número de muestras, media y recuento por cubo ("leNms" para ≤ N ms y "+Inf").
+     */
+    public Map<String, Object> toMap() {
+        long count = getCount();
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            buckets.put("le" + BOUNDS_MS[i] + "ms", counts.get(i));
+        }
+        buckets.put("+Inf", counts.get(BOUNDS_MS.length));
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", count);
+        map.put("meanMs", count == 0 ? 0 : totalMs.sum() / count);
+        map.put("buckets", buckets);
+        return map;
+    }
+}
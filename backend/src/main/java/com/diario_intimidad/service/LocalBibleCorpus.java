@@ -0,0 +1,103 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Corpus bíblico local: una {@link BibleCorpusFile} mapeada en memoria por cada traducción
+ * encontrada en {@code app.bible.corpus-dir}. Los ficheros se generan con {@code ImportBibleCorpus}.
+ */
+@Component
+public class LocalBibleCorpus implements BibleTextProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalBibleCorpus.class);
+
+    @Value("${app.bible.corpus-dir:${user.dir}/bible-corpus}")
+    private String corpusDir;
+
+    private final Map<String, BibleCorpusFile> corpora = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Path dir = Paths.get(corpusDir);
+        if (!Files.isDirectory(dir)) {
+            logger.info("Sin corpus bíblico local en {}, se usará solo la API remota", dir);
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + BibleCorpusFile.INDEX_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String translation = name.substring(0, name.length() - BibleCorpusFile.INDEX_SUFFIX.length());
+                try {
+                    corpora.put(translation, BibleCorpusFile.open(dir, translation));
+                } catch (IOException e) {
+                    logger.error("No se pudo abrir el corpus '{}' en {}", translation, dir, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("No se pudo leer el directorio del corpus bíblico {}", dir, e);
+        }
+        logger.info("Corpus bíblico local cargado desde {}: {}", dir, corpora.keySet());
+    }
+
+    public Set<String> getTranslations() {
+        return Set.copyOf(corpora.keySet());
+    }
+
+    /**
+     * Fichero de la traducción, o null si no está en el corpus local.
+     */
+    public BibleCorpusFile corpus(String translation) {
+        return corpora.get(translation);
+    }
+
+    @Override
+    public boolean supports(String translation) {
+        return corpora.containsKey(translation);
+    }
+
+    @Override
+    public Mono<List<BibleVerse>> read(BiblePassageKey key) {
+        return Mono.fromSupplier(() -> lookup(key)).filter(verses -> !verses.isEmpty());
+    }
+
+    /**
+     * Lectura síncrona del pasaje; lista vacía si la traducción, el libro o el capítulo no están en el corpus.
+     */
+    public List<BibleVerse> lookup(BiblePassageKey key) {
+        BibleCorpusFile corpus = corpora.get(key.translation());
+        int book = BibleBooks.indexOf(key.bookCode());
+        if (corpus == null || book < 0) {
+            return List.of();
+        }
+        return corpus.read(book, key.chapter(), key.verseStart(), key.verseEnd());
+    }
+
+    @PreDestroy
+    public void close() {
+        for (BibleCorpusFile corpus : corpora.values()) {
+            try {
+                corpus.close();
+            } catch (IOException e) {
+                logger.warn("Error al cerrar el corpus bíblico", e);
+            }
+        }
+        corpora.clear();
+    }
+}
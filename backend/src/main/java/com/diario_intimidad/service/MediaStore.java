@@ -0,0 +1,192 @@
+package com.diario_intimidad.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Imágenes subidas guardadas por contenido en {@code <app.upload.dir>/images/media/<sha256>.<ext>}.
+ * <p>
+ * La subida se copia a un fichero temporal calculando el SHA-256 a la vez y después se mueve de
+ * forma atómica a su nombre definitivo; si ya había un fichero con el mismo contenido se reutiliza.
+ * Solo se aceptan JPEG, PNG, GIF y WebP, reconocidos por sus primeros bytes; la extensión del nombre
+ * original no se usa, para que nunca se sirva HTML o SVG desde el origen de la aplicación.
+ * Como un nombre nunca cambia de contenido, {@code /uploads/images/media/**} se sirve con caché
+ * permanente (ver {@code WebConfig} y {@code frontend/nginx.conf}). El índice en memoria se carga una
+ * vez al arrancar y evita listar el directorio en cada subida o comprobación.
+ */
+@Service
+public class MediaStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaStore.class);
+
+    /** Prefijo de los nombres devueltos, relativo a {@code /uploads/images/}. */
+    public static final String PREFIX = "media/";
+
+    private static final Pattern STORED_NAME = Pattern.compile("([0-9a-f]{64})\\.(?:jpg|png|gif|webp)");
+
+    public record MediaEntry(String name, String sha256, long size, boolean deduplicated) {
+    }
+
+    @Value("${app.upload.dir}")
+    private String uploadDir;
+
+    private Path mediaDir;
+
+    // sha256 -> fichero guardado
+    private final Map<String, MediaEntry> index = new ConcurrentHashMap<>();
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        mediaDir = Paths.get(uploadDir, "images", "media");
+        Files.createDirectories(mediaDir);
+        try (Stream<Path> files = Files.list(mediaDir)) {
+            files.forEach(file -> {
+                var matcher = STORED_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    index.put(matcher.group(1), new MediaEntry(PREFIX + file.getFileName(), matcher.group(1), size(file), false));
+                } else if (file.getFileName().toString().endsWith(".tmp")) {
+                    // Subida interrumpida por un reinicio
+                    deleteQuietly(file);
+                }
+            });
+        }
+        logger.info("Almacén de imágenes {}: {} ficheros", mediaDir.toAbsolutePath(), index.size());
+    }
+
+    /**
+     * Guarda el contenido de {@code in} y devuelve su entrada.
+     *
+     * @throws IllegalArgumentException si el contenido no es una imagen JPEG, PNG, GIF o WebP
+     */
+    public MediaEntry store(InputStream in) throws IOException {
+        uploads.incrementAndGet();
+        Path temp = Files.createTempFile(mediaDir, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+                size = Files.copy(digestIn, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String extension = imageExtension(temp);
+            if (extension == null) {
+                throw new IllegalArgumentException("Solo se admiten imágenes JPEG, PNG, GIF o WebP");
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            MediaEntry existing = index.get(sha256);
+            if (existing != null) {
+                deduplicated.incrementAndGet();
+                return new MediaEntry(existing.name(), sha256, existing.size(), true);
+            }
+            String fileName = sha256 + "." + extension;
+            // Mismo sistema de ficheros que el temporal: el fichero aparece completo o no aparece
+            Files.move(temp, mediaDir.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+            MediaEntry entry = new MediaEntry(PREFIX + fileName, sha256, size, false);
+            MediaEntry raced = index.putIfAbsent(sha256, entry);
+            return raced != null ? new MediaEntry(raced.name(), sha256, raced.size(), true) : entry;
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Entrada de un nombre devuelto por {@link #store}, sin tocar el disco.
+     */
+    public Optional<MediaEntry> find(String name) {
+        if (name == null || !name.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        var matcher = STORED_NAME.matcher(name.substring(PREFIX.length()));
+        return matcher.matches() ? Optional.ofNullable(index.get(matcher.group(1))) : Optional.empty();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("files", index.size());
+        stats.put("bytes", index.values().stream().mapToLong(MediaEntry::size).sum());
+        stats.put("uploads", uploads.get());
+        stats.put("deduplicated", deduplicated.get());
+        return stats;
+    }
+
+    // Extensión según la firma del fichero, o null si no es un formato de imagen admitido
+    private static String imageExtension(Path file) throws IOException {
+        byte[] header = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(header, 0, header.length);
+        }
+        if (read >= 3 && (header[0] & 0xff) == 0xff && (header[1] & 0xff) == 0xd8 && (header[2] & 0xff) == 0xff) {
+            return "jpg";
+        }
+        if (read >= 8 && startsWith(header, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'})) {
+            return "png";
+        }
+        if (read >= 6 && (startsWith(header, 0, "GIF87a".getBytes(StandardCharsets.US_ASCII))
+                || startsWith(header, 0, "GIF89a".getBytes(StandardCharsets.US_ASCII)))) {
+            return "gif";
+        }
+        if (read >= 12 && startsWith(header, 0, "RIFF".getBytes(StandardCharsets.US_ASCII))
+                && startsWith(header, 8, "WEBP".getBytes(StandardCharsets.US_ASCII))) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] signature) {
+        for (int i = 0; i < signature.length; i++) {
+            if (data[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar {}", file, e);
+        }
+    }
+}
@@ -13,6 +13,9 @@ public class MesMaestroService {
     @Autowired
     private MesMaestroRepository mesMaestroRepository;
 
+    @Autowired
+    private CalendarIndex calendarIndex;
+
     public List<MesMaestro> findAll() {
         return mesMaestroRepository.findAll();
     }
@@ -26,11 +29,14 @@ public class MesMaestroService {
     }
 
     public MesMaestro save(MesMaestro mesMaestro) {
-        return mesMaestroRepository.save(mesMaestro);
+        MesMaestro saved = mesMaestroRepository.save(mesMaestro);
+        calendarIndex.refresh();
+        return saved;
     }
 
     public void deleteById(Long id) {
         mesMaestroRepository.deleteById(id);
+        calendarIndex.refresh();
     }
 
 }
\ No newline at end of file
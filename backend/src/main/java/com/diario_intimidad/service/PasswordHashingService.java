@@ -0,0 +1,212 @@
+package com.diario_intimidad.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hash de contraseñas con BCrypt fuera de los hilos de Tomcat.
+ * <ul>
+ *   <li>Pool propio de tantos hilos como núcleos y cola acotada: si se llena, {@link #submit} lanza
+ *   {@link RejectedExecutionException} y el login responde 429 en lugar de acaparar los hilos del servidor.</li>
+ *   <li>Coste configurable ({@code app.auth.bcrypt.strength}) o calibrado al arrancar para que un hash
+ *   tarde como mucho {@code app.auth.bcrypt.target-ms}.</li>
+ *   <li>{@link #needsRehash} detecta contraseñas en texto plano o con un coste menor que el actual para
+ *   volver a guardarlas en el siguiente login correcto.</li>
+ * </ul>
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final int MAX_STRENGTH = 16;
+
+    @Value("${app.auth.bcrypt.strength:10}")
+    private int minStrength;
+
+    @Value("${app.auth.bcrypt.adaptive:false}")
+    private boolean adaptive;
+
+    @Value("${app.auth.bcrypt.target-ms:250}")
+    private long targetMs;
+
+    @Value("${app.auth.hash.threads:0}")
+    private int threads;
+
+    @Value("${app.auth.hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    private volatile int strength;
+    private volatile BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+
+    private final LatencyHistogram verifyTime = new LatencyHistogram();
+    private final LatencyHistogram encodeTime = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashedPlainText = new AtomicLong();
+    private final AtomicLong rehashedWeaker = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        strength = adaptive ? calibrate() : minStrength;
+        encoder = new BCryptPasswordEncoder(strength);
+        logger.info("Hash de contraseñas: BCrypt coste {}, {} hilos, cola de {}", strength, poolSize, queueCapacity);
+    }
+
+    // Sube el coste mientras un hash tarde menos de target-ms; cada punto duplica el tiempo
+    private int calibrate() {
+        int chosen = minStrength;
+        for (int s = minStrength; s <= MAX_STRENGTH; s++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(s).encode("calibracion");
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            if (ms > targetMs) {
+                break;
+            }
+            chosen = s;
+            if (ms * 2 > targetMs) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Ejecuta {@code task} en el pool de hash.
+     *
+     * @throws RejectedExecutionException si la cola está llena
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(task, executor);
+            maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Hash de la contraseña en el pool, esperando el resultado. Si la cola está llena se calcula en el
+     * hilo actual: lo usan las altas y cambios de usuario, que son pocos y no deben fallar por un pico de logins.
+     */
+    public String encode(String rawPassword) {
+        try {
+            return submit(() -> encodeNow(rawPassword)).join();
+        } catch (RejectedExecutionException e) {
+            return encodeNow(rawPassword);
+        }
+    }
+
+    /**
+     * Igual que {@link #encode} para comprobar una contraseña.
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        try {
+            return submit(() -> matchesNow(rawPassword, storedPassword)).join();
+        } catch (RejectedExecutionException e) {
+            return matchesNow(rawPassword, storedPassword);
+        }
+    }
+
+    /**
+     * Hash en el hilo actual; para código que ya se ejecuta dentro del pool.
+     */
+    public String encodeNow(String rawPassword) {
+        long start = System.nanoTime();
+        String hash = encoder.encode(rawPassword);
+        encodeTime.record((System.nanoTime() - start) / 1_000_000);
+        return hash;
+    }
+
+    /**
+     * Comprueba la contraseña en el hilo actual. Acepta hashes BCrypt de cualquier coste y, por
+     * compatibilidad, contraseñas antiguas guardadas en texto plano.
+     */
+    public boolean matchesNow(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isBCrypt(storedPassword)) {
+            return rawPassword.equals(storedPassword);
+        }
+        long start = System.nanoTime();
+        boolean matches = encoder.matches(rawPassword, storedPassword);
+        verifyTime.record((System.nanoTime() - start) / 1_000_000);
+        return matches;
+    }
+
+    /**
+     * true si la contraseña guardada está en texto plano o tiene un coste menor que el actual.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isBCrypt(storedPassword) || cost(storedPassword) < strength;
+    }
+
+    /**
+     * Nuevo hash para una contraseña que necesita {@link #needsRehash}; cuenta la migración en las métricas.
+     */
+    public String rehashNow(String rawPassword, String storedPassword) {
+        (isBCrypt(storedPassword) ? rehashedWeaker : rehashedPlainText).incrementAndGet();
+        return encodeNow(rawPassword);
+    }
+
+    public static boolean isBCrypt(String storedPassword) {
+        return storedPassword.length() == 60 && storedPassword.startsWith("$2") && storedPassword.charAt(3) == '$';
+    }
+
+    // "$2a$10$..." -> 10
+    private static int cost(String hash) {
+        return (hash.charAt(4) - '0') * 10 + (hash.charAt(5) - '0');
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("threads", executor.getPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("maxQueueDepth", maxQueueDepth.get());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.get());
+        stats.put("rehashedPlainText", rehashedPlainText.get());
+        stats.put("rehashedWeaker", rehashedWeaker.get());
+        stats.put("verifyTime", verifyTime.toMap());
+        stats.put("encodeTime", encodeTime.toMap());
+        return stats;
+    }
+}
@@ -41,4 +41,8 @@ public class PedidoService {
     public List<Pedido> findByEstado(String estado) {
         return pedidoRepository.findByEstado(estado);
     }
+
+    public List<Pedido> findByUsuarioIdAndEstado(Long usuarioId, String estado) {
+        return pedidoRepository.findByUsuarioIdAndEstado(usuarioId, estado);
+    }
 }
\ No newline at end of file
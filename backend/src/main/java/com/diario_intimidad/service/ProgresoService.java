@@ -0,0 +1,152 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.ProgresoAnualResponse;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.ProgresoAnual;
+import com.diario_intimidad.repository.EntradaDiariaRepository;
+import com.diario_intimidad.repository.ProgresoAnualRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+
+/**
+ * Progreso anual por (usuario, diario) mantenido de forma incremental: cada guardado de entrada
+ * marca o desmarca su bit en un bitmap de 366 días y recalcula totales y rachas sobre esos 46 bytes,
+ * de modo que las vistas de progreso leen una sola fila en lugar de agregar todas las entradas.
+ */
+@Service
+public class ProgresoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgresoService.class);
+
+    static final int DIAS_BITMAP = 366;
+
+    @Autowired
+    private ProgresoAnualRepository progresoAnualRepository;
+
+    @Autowired
+    private EntradaDiariaRepository entradaDiariaRepository;
+
+    @Autowired
+    private CalendarIndex calendarIndex;
+
+    /**
+     * Actualiza el bit del día dentro de la transacción del guardado.
+     */
+    @Transactional
+    public void registrarDia(Long usuarioId, DiarioAnual diario, LocalDate fecha, boolean completado) {
+        ProgresoAnual progreso = cargarParaActualizar(usuarioId, diario);
+        if (!setBit(progreso.getDiasCompletados(), fecha.getDayOfYear() - 1, completado)) {
+            return;
+        }
+        recalcular(progreso, diario.getAnio());
+        progresoAnualRepository.save(progreso);
+        logger.debug("Progreso de usuario {} en {}: {} días, racha {}", usuarioId, diario.getAnio(),
+                progreso.getTotalCompletados(), progreso.getRachaActual());
+    }
+
+    /**
+     * Solo lectura: si la fila aún no existe se calcula en memoria desde las entradas completadas,
+     * sin crearla; la crea el primer {@link #registrarDia}.
+     */
+    @Transactional(readOnly = true)
+    public ProgresoAnualResponse getProgreso(Long usuarioId, int anio) {
+        DiarioAnual diario = calendarIndex.findDiario(anio)
+                .orElseThrow(() -> new IllegalArgumentException("Diario anual no encontrado para el año " + anio));
+        ProgresoAnual progreso = progresoAnualRepository.findByUsuarioIdAndDiarioId(usuarioId, diario.getId())
+                .orElseGet(() -> {
+                    ProgresoAnual calculado = new ProgresoAnual();
+                    calculado.setDiasCompletados(new byte[(DIAS_BITMAP + 7) / 8]);
+                    marcarCompletadas(calculado, usuarioId, diario);
+                    return calculado;
+                });
+
+        ProgresoAnualResponse response = new ProgresoAnualResponse();
+        response.setAnio(anio);
+        response.setDiarioId(diario.getId());
+        response.setDiasDelAnio(Year.of(anio).length());
+        response.setDiasCompletados(progreso.getDiasCompletados());
+        response.setTotalCompletados(progreso.getTotalCompletados());
+        response.setRachaMaxima(progreso.getRachaMaxima());
+        response.setUltimaFechaCompletada(progreso.getUltimaFechaCompletada());
+        // La racha guardada termina en el último día completado; deja de estar vigente si se saltó ayer
+        LocalDate ultima = progreso.getUltimaFechaCompletada();
+        boolean vigente = ultima != null && !ultima.isBefore(LocalDate.now().minusDays(1));
+        response.setRachaActual(vigente ? progreso.getRachaActual() : 0);
+        return response;
+    }
+
+    /**
+     * Devuelve la fila bloqueada; si no existía la crea a partir de las entradas ya completadas.
+     */
+    private ProgresoAnual cargarParaActualizar(Long usuarioId, DiarioAnual diario) {
+        boolean creado = progresoAnualRepository.insertIfAbsent(usuarioId, diario.getId(), new byte[(DIAS_BITMAP + 7) / 8]) == 1;
+        ProgresoAnual progreso = progresoAnualRepository.findForUpdate(usuarioId, diario.getId())
+                .orElseThrow(() -> new IllegalStateException("Progreso anual no encontrado tras crearlo"));
+        if (creado) {
+            marcarCompletadas(progreso, usuarioId, diario);
+            progresoAnualRepository.save(progreso);
+            logger.info("Progreso anual inicializado para usuario {} en {}: {} días completados", usuarioId, diario.getAnio(),
+                    progreso.getTotalCompletados());
+        }
+        return progreso;
+    }
+
+    // Marca en el bitmap las entradas ya completadas del año y recalcula totales y rachas
+    private void marcarCompletadas(ProgresoAnual progreso, Long usuarioId, DiarioAnual diario) {
+        byte[] bitmap = progreso.getDiasCompletados();
+        for (LocalDate fecha : entradaDiariaRepository.findFechasCompletadas(usuarioId, diario.getId())) {
+            if (fecha.getYear() == diario.getAnio()) {
+                setBit(bitmap, fecha.getDayOfYear() - 1, true);
+            }
+        }
+        recalcular(progreso, diario.getAnio());
+    }
+
+    private static void recalcular(ProgresoAnual progreso, int anio) {
+        byte[] bitmap = progreso.getDiasCompletados();
+        int total = 0;
+        int racha = 0;
+        int maxima = 0;
+        int ultimo = -1;
+        for (int i = 0; i < DIAS_BITMAP; i++) {
+            if (getBit(bitmap, i)) {
+                total++;
+                racha++;
+                maxima = Math.max(maxima, racha);
+                ultimo = i;
+            } else {
+                racha = 0;
+            }
+        }
+        // La racha actual es la que termina en el último día completado
+        int actual = 0;
+        for (int i = ultimo; i >= 0 && getBit(bitmap, i); i--) {
+            actual++;
+        }
+        progreso.setTotalCompletados(total);
+        progreso.setRachaActual(actual);
+        progreso.setRachaMaxima(maxima);
+        progreso.setUltimaFechaCompletada(ultimo >= 0 ? Year.of(anio).atDay(ultimo + 1) : null);
+        progreso.setFechaActualizacion(LocalDateTime.now());
+    }
+
+    private static boolean getBit(byte[] bitmap, int index) {
+        return (bitmap[index >>> 3] & (1 << (index & 7))) != 0;
+    }
+
+    // Devuelve true si el bit cambió
+    private static boolean setBit(byte[] bitmap, int index, boolean value) {
+        if (getBit(bitmap, index) == value) {
+            return false;
+        }
+        bitmap[index >>> 3] ^= (byte) (1 << (index & 7));
+        return true;
+    }
+}
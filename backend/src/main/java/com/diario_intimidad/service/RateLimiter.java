@@ -0,0 +1,252 @@
+package com.diario_intimidad.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de peticiones por cliente con cubos de fichas, uno por grupo de rutas y cliente.
+ * <p>
+ * Cada cubo es un único {@link AtomicLong} con el instante teórico en que vuelve a estar lleno
+ * (algoritmo GCRA, equivalente a un cubo de {@code capacity} fichas que se rellena a {@code per-minute}
+ * fichas por minuto), así que consumir una ficha es un compare-and-set sin bloqueos. Los cubos se
+ * reparten en varios mapas según el hash de la clave; los que llevan {@code idle-evict-ms} llenos se
+ * eliminan sin perder información, porque un cubo lleno es igual a uno nuevo.
+ * <p>
+ * Toda petición consume del cubo de su IP; si además trae un token válido, también del cubo de su
+ * usuario. El cubo por IP lo comparten todos los que salen por la misma dirección (la red de una
+ * iglesia, por ejemplo), así que debe dimensionarse para ese grupo; el de usuario limita a cada cuenta.
+ */
+@Service
+public class RateLimiter {
+
+    public enum Group { LOGIN, PEDIDOS, BIBLE, DIARIOS }
+
+    private static final int STRIPES = 16;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.login.capacity:60}")
+    private int loginCapacity;
+
+    @Value("${app.rate-limit.login.per-minute:120}")
+    private int loginPerMinute;
+
+    @Value("${app.rate-limit.login.user-capacity:10}")
+    private int loginUserCapacity;
+
+    @Value("${app.rate-limit.login.user-per-minute:10}")
+    private int loginUserPerMinute;
+
+    @Value("${app.rate-limit.pedidos.capacity:20}")
+    private int pedidosCapacity;
+
+    @Value("${app.rate-limit.pedidos.per-minute:20}")
+    private int pedidosPerMinute;
+
+    @Value("${app.rate-limit.pedidos.user-capacity:5}")
+    private int pedidosUserCapacity;
+
+    @Value("${app.rate-limit.pedidos.user-per-minute:5}")
+    private int pedidosUserPerMinute;
+
+    @Value("${app.rate-limit.bible.capacity:600}")
+    private int bibleCapacity;
+
+    @Value("${app.rate-limit.bible.per-minute:1200}")
+    private int biblePerMinute;
+
+    @Value("${app.rate-limit.bible.user-capacity:120}")
+    private int bibleUserCapacity;
+
+    @Value("${app.rate-limit.bible.user-per-minute:600}")
+    private int bibleUserPerMinute;
+
+    @Value("${app.rate-limit.diarios.capacity:300}")
+    private int diariosCapacity;
+
+    @Value("${app.rate-limit.diarios.per-minute:600}")
+    private int diariosPerMinute;
+
+    @Value("${app.rate-limit.diarios.user-capacity:60}")
+    private int diariosUserCapacity;
+
+    @Value("${app.rate-limit.diarios.user-per-minute:300}")
+    private int diariosUserPerMinute;
+
+    @Value("${app.rate-limit.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, AtomicLong>[] stripes = new Map[STRIPES];
+
+    private final Map<Group, Limit> ipLimits = new LinkedHashMap<>();
+    private final Map<Group, Limit> userLimits = new LinkedHashMap<>();
+    private final Map<Group, Counters> counters = new LinkedHashMap<>();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Intervalo entre fichas y margen de ráfaga ({@code capacity} intervalos), en nanosegundos.
+     */
+    private record Limit(int capacity, int perMinute, long intervalNanos, long burstNanos) {
+
+        static Limit of(int capacity, int perMinute) {
+            long interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            return new Limit(capacity, perMinute, interval, interval * Math.max(1, capacity));
+        }
+    }
+
+    private record Counters(LongAdder allowed, LongAdder rejectedIp, LongAdder rejectedUser) {
+
+        Counters() {
+            this(new LongAdder(), new LongAdder(), new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        configure(Group.LOGIN, Limit.of(loginCapacity, loginPerMinute), Limit.of(loginUserCapacity, loginUserPerMinute));
+        configure(Group.PEDIDOS, Limit.of(pedidosCapacity, pedidosPerMinute), Limit.of(pedidosUserCapacity, pedidosUserPerMinute));
+        configure(Group.BIBLE, Limit.of(bibleCapacity, biblePerMinute), Limit.of(bibleUserCapacity, bibleUserPerMinute));
+        configure(Group.DIARIOS, Limit.of(diariosCapacity, diariosPerMinute), Limit.of(diariosUserCapacity, diariosUserPerMinute));
+    }
+
+    private void configure(Group group, Limit ip, Limit user) {
+        ipLimits.put(group, ip);
+        userLimits.put(group, user);
+        counters.put(group, new Counters());
+    }
+
+    /**
+     * Consume una ficha del cubo de {@code ip} en {@code group} y, si hay usuario, también del suyo.
+     *
+     * @param usuarioId usuario autenticado o null
+     * @return 0 si la petición puede pasar; si no, los milisegundos hasta que haya una ficha libre
+     */
+    public long tryAcquire(Group group, String ip, Long usuarioId) {
+        return tryAcquire(group, ip, usuarioId, System.nanoTime());
+    }
+
+    long tryAcquire(Group group, String ip, Long usuarioId, long now) {
+        if (!enabled) {
+            return 0;
+        }
+        Counters c = counters.get(group);
+        Limit ipLimit = ipLimits.get(group);
+        AtomicLong ipBucket = bucket(group.ordinal() + ":ip:" + ip, now);
+        long waitNanos = take(ipBucket, ipLimit, now);
+        if (waitNanos > 0) {
+            c.rejectedIp().increment();
+            return toMillisCeil(waitNanos);
+        }
+        if (usuarioId != null) {
+            waitNanos = take(bucket(group.ordinal() + ":u:" + usuarioId, now), userLimits.get(group), now);
+            if (waitNanos > 0) {
+                // La petición no pasa: se devuelve la ficha de la IP
+                ipBucket.addAndGet(-ipLimit.intervalNanos());
+                c.rejectedUser().increment();
+                return toMillisCeil(waitNanos);
+            }
+        }
+        c.allowed().increment();
+        return 0;
+    }
+
+    // Redondeo hacia arriba: reintentar tras el tiempo devuelto nunca llega antes de la ficha
+    private static long toMillisCeil(long nanos) {
+        return (nanos + 999_999) / 1_000_000;
+    }
+
+    // 0 si se consumió una ficha; si no, nanosegundos hasta que haya una
+    private static long take(AtomicLong bucket, Limit limit, long now) {
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + limit.intervalNanos();
+            long waitNanos = next - limit.burstNanos() - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        Map<String, AtomicLong> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // Demasiadas claves (p. ej. muchas IP distintas): antes de crecer se quitan los cubos ya llenos
+        if (stripe.size() >= maxKeys / STRIPES) {
+            evict(stripe, now);
+        }
+        // Un cubo nuevo está lleno: el instante en que se llenó queda en el pasado
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now - TimeUnit.DAYS.toNanos(1)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.idle-evict-ms:600000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        long cutoff = now - TimeUnit.MILLISECONDS.toNanos(idleEvictMs);
+        for (Map<String, AtomicLong> stripe : stripes) {
+            evict(stripe, cutoff);
+        }
+    }
+
+    private void evict(Map<String, AtomicLong> stripe, long cutoff) {
+        stripe.values().removeIf(bucket -> {
+            if (bucket.get() > cutoff) {
+                return false;
+            }
+            evicted.increment();
+            return true;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        int keys = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            keys += stripe.size();
+        }
+        Map<String, Object> groups = new LinkedHashMap<>();
+        counters.forEach((group, c) -> {
+            Map<String, Object> g = new LinkedHashMap<>();
+            Limit ip = ipLimits.get(group);
+            Limit user = userLimits.get(group);
+            g.put("capacity", ip.capacity());
+            g.put("perMinute", ip.perMinute());
+            g.put("userCapacity", user.capacity());
+            g.put("userPerMinute", user.perMinute());
+            g.put("allowed", c.allowed().sum());
+            g.put("rejectedIp", c.rejectedIp().sum());
+            g.put("rejectedUser", c.rejectedUser().sum());
+            groups.put(group.name().toLowerCase(), g);
+        });
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("keys", keys);
+        stats.put("evicted", evicted.sum());
+        stats.put("groups", groups);
+        return stats;
+    }
+}
@@ -0,0 +1,224 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Texto bíblico desde bible-api.deno.dev, para traducciones o capítulos que no están en el corpus local.
+ * <ul>
+ *   <li>Pool de conexiones acotado y timeouts de conexión, de respuesta y de la llamada completa.</li>
+ *   <li>Cortocircuito: tras varios fallos seguidos las llamadas fallan al instante (y el controlador
+ *   responde con su texto de respaldo) hasta que una llamada de prueba sale bien.</li>
+ *   <li>Petición de cobertura opcional: si la respuesta tarda más que el p95 reciente se lanza una
+ *   segunda petición y se usa la primera que responda.</li>
+ *   <li>Histogramas de latencia por resultado.</li>
+ * </ul>
+ */
+@Component
+public class RemoteBibleProvider implements BibleTextProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteBibleProvider.class);
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
+    private final WebClient webClient;
+
+    private final String baseUrl;
+
+    private final ConnectionProvider pool;
+
+    private final CircuitBreaker circuitBreaker;
+
+    @Value("${app.bible.remote.request-timeout-ms:4000}")
+    private long requestTimeoutMs;
+
+    @Value("${app.bible.remote.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${app.bible.remote.hedge.min-delay-ms:200}")
+    private long hedgeMinDelayMs;
+
+    @Value("${app.bible.remote.hedge.default-delay-ms:1000}")
+    private long hedgeDefaultDelayMs;
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final AtomicLong hedges = new AtomicLong();
+
+    // Latencias recientes de llamadas correctas, para calcular el retardo de cobertura
+    private final long[] recentLatencies = new long[LATENCY_WINDOW];
+    private int recentCount;
+    private int recentNext;
+
+    @Autowired
+    public RemoteBibleProvider(WebClient.Builder webClientBuilder,
+                               @Value("${app.bible.remote-url:https://bible-api.deno.dev/api/read/}") String baseUrl,
+                               @Value("${app.bible.remote.max-connections:50}") int maxConnections,
+                               @Value("${app.bible.remote.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+                               @Value("${app.bible.remote.connect-timeout-ms:2000}") int connectTimeoutMs,
+                               @Value("${app.bible.remote.response-timeout-ms:3000}") long responseTimeoutMs,
+                               @Value("${app.bible.remote.breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${app.bible.remote.breaker.open-ms:30000}") long openMs) {
+        this.pool = ConnectionProvider.builder("bible-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+        for (String outcome : new String[]{"success", "clientError", "error", "timeout", "cancelled", "rejected"}) {
+            histograms.put(outcome, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public boolean supports(String translation) {
+        return true;
+    }
+
+    @Override
+    public Mono<List<BibleVerse>> read(BiblePassageKey key) {
+        String url = baseUrl + key.translation() + "/" + key.bookCode() + "/" + key.chapter();
+        if (!key.versePart().isEmpty()) {
+            url += "/" + key.versePart();
+        }
+        logger.info("Calling Bible API: {}", url);
+        Mono<List<BibleVerse>> primary = attempt(url);
+        if (hedgeEnabled && circuitBreaker.getState() == CircuitBreaker.State.CLOSED) {
+            String hedgeUrl = url;
+            // Gana la primera señal; si la cobertura falla se sigue esperando a la principal
+            Mono<List<BibleVerse>> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMs()))
+                    .then(Mono.defer(() -> {
+                        hedges.incrementAndGet();
+                        logger.debug("Petición de cobertura para {}", hedgeUrl);
+                        return attempt(hedgeUrl);
+                    }))
+                    .onErrorResume(e -> Mono.never());
+            primary = Mono.firstWithSignal(primary, hedge);
+        }
+        if (key.isToEndOfChapter()) {
+            // La API no admite rangos abiertos: se pide el capítulo y se recorta
+            primary = primary.map(verses -> verses.stream().filter(v -> v.number() >= key.verseStart()).toList());
+        }
+        return primary.filter(verses -> !verses.isEmpty());
+    }
+
+    private Mono<List<BibleVerse>> attempt(String url) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                histograms.get("rejected").record(0);
+                return Mono.error(new IllegalStateException("Bible API no disponible (cortocircuito abierto)"));
+            }
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    // Cada trozo se decodifica al llegar y se libera enseguida
+                    .reduceWith(BibleApiDecoder::new, (decoder, buffer) -> {
+                        try {
+                            return decoder.feed(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .map(BibleApiDecoder::finish)
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .doOnSuccess(verses -> {
+                        long ms = elapsedMs(start);
+                        logger.debug("Extracted {} verses from Bible API response", verses.size());
+                        histograms.get("success").record(ms);
+                        recordLatency(ms);
+                        circuitBreaker.onSuccess();
+                    })
+                    .doOnError(e -> {
+                        long ms = elapsedMs(start);
+                        if (e instanceof WebClientResponseException r && r.getStatusCode().is4xxClientError()) {
+                            // El servicio responde: la referencia no existe
+                            histograms.get("clientError").record(ms);
+                            circuitBreaker.onSuccess();
+                        } else {
+                            histograms.get(isTimeout(e) ? "timeout" : "error").record(ms);
+                            circuitBreaker.onFailure();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        histograms.get("cancelled").record(elapsedMs(start));
+                        circuitBreaker.release();
+                    });
+        });
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        return e instanceof TimeoutException || e.getCause() instanceof ReadTimeoutException
+                || e.getCause() instanceof ConnectTimeoutException;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private synchronized void recordLatency(long millis) {
+        recentLatencies[recentNext] = millis;
+        recentNext = (recentNext + 1) % LATENCY_WINDOW;
+        recentCount = Math.min(recentCount + 1, LATENCY_WINDOW);
+    }
+
+    /**
+     * p95 de las últimas llamadas correctas, con un mínimo; valor fijo mientras no hay suficientes muestras.
+     */
+    synchronized long hedgeDelayMs() {
+        if (recentCount < MIN_HEDGE_SAMPLES) {
+            return hedgeDefaultDelayMs;
+        }
+        long[] sorted = Arrays.copyOf(recentLatencies, recentCount);
+        Arrays.sort(sorted);
+        long p95 = sorted[(int) Math.ceil(recentCount * 0.95) - 1];
+        return Math.max(p95, hedgeMinDelayMs);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitState", circuitBreaker.getState().name());
+        stats.put("circuitOpened", circuitBreaker.getTimesOpened());
+        stats.put("hedges", hedges.get());
+        stats.put("hedgeDelayMs", hedgeDelayMs());
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        histograms.forEach((outcome, histogram) -> latencies.put(outcome, histogram.toMap()));
+        stats.put("latencies", latencies);
+        return stats;
+    }
+}
@@ -0,0 +1,95 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.entity.Usuario;
+import com.diario_intimidad.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla en memoria de usuarios existentes y del instante a partir del cual sus tokens son válidos,
+ * para autenticar cada petición solo con los datos del JWT.
+ * <p>
+ * Un token se rechaza si su usuario ya no existe o si se emitió antes de {@code tokens_valid_after}
+ * (cambio de rol o de contraseña). {@link UsuarioService} llama a {@link #refresh(Long)} tras cada
+ * escritura, y la tabla se recarga completa periódicamente para recoger cambios hechos en otros nodos.
+ */
+@Component
+public class UsuarioAccessIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioAccessIndex.class);
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    // Id de usuario -> milisegundos desde los que se aceptan sus tokens (0 si nunca se revocaron)
+    private volatile Map<Long, Long> validAfter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("No se pudo cargar la tabla de acceso de usuarios al arrancar, se reintentará en la primera petición", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.access-refresh-ms:60000}", initialDelayString = "${app.auth.access-refresh-ms:60000}")
+    public synchronized void reload() {
+        Map<Long, Long> table = new ConcurrentHashMap<>();
+        for (UsuarioRepository.AccessRow row : usuarioRepository.findAccessRows()) {
+            table.put(row.getId(), toMillis(row.getTokensValidAfter()));
+        }
+        validAfter = table;
+        logger.debug("Tabla de acceso de usuarios cargada: {} usuarios", table.size());
+    }
+
+    /**
+     * Vuelve a leer un usuario tras crearlo, modificarlo o borrarlo.
+     */
+    public synchronized void refresh(Long usuarioId) {
+        if (validAfter == null) {
+            reload();
+            return;
+        }
+        Optional<Usuario> usuario = usuarioRepository.findById(usuarioId);
+        if (usuario.isPresent()) {
+            validAfter.put(usuarioId, toMillis(usuario.get().getTokensValidAfter()));
+        } else {
+            validAfter.remove(usuarioId);
+        }
+    }
+
+    /**
+     * true si el usuario existe y el token se emitió después de su última revocación.
+     * Sin tabla cargada (base de datos caída al arrancar) se intenta cargar y, si falla, se rechaza.
+     */
+    public boolean isValid(Long usuarioId, long issuedAtMillis) {
+        Map<Long, Long> table = validAfter;
+        if (table == null) {
+            try {
+                reload();
+            } catch (Exception e) {
+                logger.error("No se pudo cargar la tabla de acceso de usuarios", e);
+                return false;
+            }
+            table = validAfter;
+        }
+        Long after = table.get(usuarioId);
+        return after != null && issuedAtMillis >= after;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
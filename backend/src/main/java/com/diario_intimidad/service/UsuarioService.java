@@ -6,11 +6,13 @@ import com.diario_intimidad.repository.UsuarioRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UsuarioService {
@@ -20,7 +22,11 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private UsuarioAccessIndex usuarioAccessIndex;
+
+    @Autowired
+    private PasswordHashingService passwordHashing;
 
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
@@ -35,15 +41,32 @@ public class UsuarioService {
         if (usuario.getPassword() == null || usuario.getPassword().trim().isEmpty()) {
             throw new IllegalArgumentException("Password cannot be null or empty");
         }
-        usuario.setPassword(passwordEncoder.encode(usuario.getPassword()));
+        if (usuario.getId() != null) {
+            usuarioRepository.findById(usuario.getId()).ifPresent(actual -> usuario.setTokensValidAfter(tokensValidAfter(actual, usuario)));
+        }
+        usuario.setPassword(passwordHashing.encode(usuario.getPassword()));
         logger.info("Password encoded, saving to repository");
         Usuario saved = usuarioRepository.save(usuario);
         logger.info("User saved with id: {}", saved.getId());
+        usuarioAccessIndex.refresh(saved.getId());
         return saved;
     }
 
+    // Un cambio de rol o de contraseña invalida los tokens ya emitidos. El "iat" del JWT va en segundos,
+    // así que se trunca igual: los tokens emitidos en el mismo segundo que el cambio siguen siendo válidos
+    private LocalDateTime tokensValidAfter(Usuario actual, Usuario cambios) {
+        boolean rolCambiado = actual.getRol() != cambios.getRol();
+        boolean passwordCambiada = !passwordHashing.matches(cambios.getPassword(), actual.getPassword());
+        if (rolCambiado || passwordCambiada) {
+            logger.info("Revoking tokens of user {} (role changed: {}, password changed: {})", actual.getId(), rolCambiado, passwordCambiada);
+            return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        }
+        return actual.getTokensValidAfter();
+    }
+
     public void deleteById(Long id) {
         usuarioRepository.deleteById(id);
+        usuarioAccessIndex.refresh(id);
     }
 
     public Optional<Usuario> findByEmail(String email) {
@@ -62,23 +85,31 @@ public class UsuarioService {
         return saved;
     }
 
-    public Optional<Usuario> authenticate(LoginRequest loginRequest) {
+    /**
+     * Comprueba las credenciales en el pool de hash ({@link PasswordHashingService}), fuera del hilo de la petición.
+     * Si la contraseña es correcta pero está en texto plano o con un coste BCrypt antiguo, se vuelve a guardar
+     * con el coste actual.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException si hay demasiados logins en cola
+     */
+    public CompletableFuture<Optional<Usuario>> authenticate(LoginRequest loginRequest) {
+        return passwordHashing.submit(() -> authenticateNow(loginRequest));
+    }
+
+    private Optional<Usuario> authenticateNow(LoginRequest loginRequest) {
         logger.info("Attempting to authenticate user: {}", loginRequest.getEmail());
         Optional<Usuario> usuario = findByEmail(loginRequest.getEmail());
         if (usuario.isPresent()) {
             logger.info("User found: {}", usuario.get().getEmail());
             String storedPassword = usuario.get().getPassword();
-            logger.info("Stored password starts with $2a$: {}", storedPassword.startsWith("$2a$"));
-            boolean matches;
-            if (storedPassword.startsWith("$2a$")) {
-                matches = passwordEncoder.matches(loginRequest.getPassword(), storedPassword);
-                logger.info("BCrypt matches: {}", matches);
-            } else {
-                matches = loginRequest.getPassword().equals(storedPassword);
-                logger.info("Plain text matches: {}", matches);
-            }
+            boolean bcrypt = PasswordHashingService.isBCrypt(storedPassword);
+            boolean matches = passwordHashing.matchesNow(loginRequest.getPassword(), storedPassword);
+            logger.info("{} matches: {}", bcrypt ? "BCrypt" : "Plain text", matches);
             if (matches) {
                 logger.info("Authentication successful for user: {}", loginRequest.getEmail());
+                if (passwordHashing.needsRehash(storedPassword)) {
+                    rehash(usuario.get(), loginRequest.getPassword());
+                }
                 return usuario;
             } else {
                 logger.warn("Password does not match for user: {}", loginRequest.getEmail());
@@ -89,4 +120,14 @@ public class UsuarioService {
         return Optional.empty();
     }
 
-}
\ No newline at end of file
+    // Misma contraseña con otro hash: no cambia tokens_valid_after ni revoca sesiones
+    private void rehash(Usuario usuario, String rawPassword) {
+        try {
+            usuario.setPassword(passwordHashing.rehashNow(rawPassword, usuario.getPassword()));
+            usuarioRepository.save(usuario);
+            logger.info("Password of user {} rehashed with the current BCrypt cost", usuario.getId());
+        } catch (Exception e) {
+            logger.warn("Could not rehash password of user {}, will retry on next login", usuario.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.diario_intimidad.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "secretoDePruebaConLongitudSuficienteParaHS256-0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3);
+    }
+
+    @Test
+    void tokenEnCacheDevuelveLosMismosDatos() {
+        String token = jwtUtil.generateToken(7L, "lector@test.local", "USER");
+
+        JwtClaims first = jwtUtil.verify(token);
+        JwtClaims second = jwtUtil.verify(token);
+
+        assertThat(first).isNotNull();
+        assertThat(first.usuarioId()).isEqualTo(7L);
+        assertThat(first.email()).isEqualTo("lector@test.local");
+        assertThat(first.rol()).isEqualTo("USER");
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenCaducadoSeRechazaAunqueEsteEnCache() {
+        String token = jwtUtil.generateToken(7L, "lector@test.local", "USER");
+        JwtClaims claims = jwtUtil.verify(token);
+
+        assertThat(jwtUtil.verify(token, claims.expiresAtMillis() - 1)).isSameAs(claims);
+        assertThat(jwtUtil.verify(token, claims.expiresAtMillis())).isNull();
+        assertThat(jwtUtil.cachedTokens()).isZero();
+    }
+
+    @Test
+    void firmaManipuladaNuncaSeSirveDesdeLaCache() {
+        String token = jwtUtil.generateToken(7L, "lector@test.local", "USER");
+        assertThat(jwtUtil.verify(token)).isNotNull();
+
+        String[] parts = token.split("\\.");
+        // Un carácter central de la firma: el último solo lleva en parte bits de relleno
+        char[] signature = parts[2].toCharArray();
+        int middle = signature.length / 2;
+        signature[middle] = signature[middle] == 'A' ? 'B' : 'A';
+        String otraFirma = parts[0] + "." + parts[1] + "." + new String(signature);
+
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("\"uid\":7", "\"uid\":1");
+        String otroUsuario = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        String otraClave = new JwtUtil(SECRET.replace('0', '9'), 3).generateToken(7L, "lector@test.local", "USER");
+
+        assertThat(jwtUtil.verify(otraFirma)).isNull();
+        assertThat(jwtUtil.verify(otroUsuario)).isNull();
+        assertThat(jwtUtil.verify(otraClave)).isNull();
+        assertThat(jwtUtil.cachedTokens()).isEqualTo(1);
+        // Un rechazo tampoco se recuerda: sigue fallando
+        assertThat(jwtUtil.verify(otraFirma)).isNull();
+    }
+
+    @Test
+    void cacheLlenaExpulsaPrimeroLosCaducados() {
+        JwtClaims a = jwtUtil.verify(jwtUtil.generateToken(1L, "a@test.local", "USER"));
+        jwtUtil.verify(jwtUtil.generateToken(2L, "b@test.local", "USER"));
+        jwtUtil.verify(jwtUtil.generateToken(3L, "c@test.local", "USER"));
+        assertThat(jwtUtil.cachedTokens()).isEqualTo(3);
+
+        // Cuando los tres ya han caducado, el cuarto los sustituye a todos
+        long despues = a.expiresAtMillis() + TimeUnit.MINUTES.toMillis(1);
+        String cuarto = jwtUtil.generateToken(4L, "d@test.local", "USER");
+        assertThat(jwtUtil.verify(cuarto, despues)).isNotNull();
+        assertThat(jwtUtil.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void cacheLlenaDeTokensVigentesNoCreceMasDelMaximo() {
+        String[] tokens = new String[5];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = jwtUtil.generateToken((long) i + 1, "u" + i + "@test.local", "USER");
+            assertThat(jwtUtil.verify(tokens[i])).isNotNull();
+            assertThat(jwtUtil.cachedTokens()).isLessThanOrEqualTo(3);
+        }
+        JwtClaims ultimo = jwtUtil.verify(tokens[4]);
+        assertThat(jwtUtil.verify(tokens[4])).isSameAs(ultimo);
+        // Los expulsados se vuelven a verificar con la firma, no se pierden
+        for (String token : tokens) {
+            assertThat(jwtUtil.verify(token)).isNotNull();
+        }
+        assertThat(jwtUtil.cachedTokens()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,177 @@
+package com.diario_intimidad.repository;
+
+import com.diario_intimidad.dto.EntradaResumen;
+import com.diario_intimidad.entity.CamposDiario;
+import com.diario_intimidad.entity.DiaMaestro;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.EntradaDiaria;
+import com.diario_intimidad.entity.MesMaestro;
+import com.diario_intimidad.entity.Pedido;
+import com.diario_intimidad.entity.Usuario;
+import com.diario_intimidad.entity.ValoresCampo;
+import com.diario_intimidad.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada consulta con {@code @EntityGraph} debe traer las asociaciones que se serializan en una sola
+ * sentencia: recorrerlas después no puede lanzar selects adicionales (N+1).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EntityGraphQueryCountTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntradaDiariaRepository entradaDiariaRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private DiaMaestroRepository diaMaestroRepository;
+
+    @Autowired
+    private MesMaestroRepository mesMaestroRepository;
+
+    @Autowired
+    private ValoresCampoRepository valoresCampoRepository;
+
+    private Statistics statistics;
+    private Usuario usuario;
+    private DiarioAnual diario;
+    private EntradaDiaria primeraEntrada;
+
+    @BeforeEach
+    void setUp() {
+        diario = TestData.diario(em, 2026);
+        MesMaestro mes = TestData.mes(em, diario, 3);
+        CamposDiario campo = TestData.campo(em, diario, "Reflexión", 1);
+        CamposDiario otroCampo = TestData.campo(em, diario, "Oración", 2);
+        usuario = TestData.usuario(em, "lector@test.local");
+        for (int d = 1; d <= 3; d++) {
+            DiaMaestro dia = TestData.dia(em, mes, d);
+            EntradaDiaria entrada = TestData.entrada(em, usuario, dia, LocalDate.of(2026, 3, d));
+            TestData.valor(em, entrada, campo, "texto " + d);
+            TestData.valor(em, entrada, otroCampo, "oración " + d);
+            if (primeraEntrada == null) {
+                primeraEntrada = entrada;
+            }
+        }
+        TestData.pedido(em, diario, usuario, "CONFIRMADO");
+        TestData.pedido(em, diario, usuario, "PENDIENTE");
+        em.flush();
+        em.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void entradasDelUsuarioCarganUsuarioDiarioYDiaEnUnaSentencia() {
+        List<EntradaDiaria> entradas = entradaDiariaRepository.findByUsuarioIdAndDiarioId(usuario.getId(), diario.getId());
+
+        assertThat(entradas).hasSize(3);
+        entradas.forEach(EntityGraphQueryCountTest::recorrer);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entradasPorRangoDeFechasCarganAsociacionesEnUnaSentencia() {
+        List<EntradaDiaria> entradas = entradaDiariaRepository.findByUsuarioIdAndFechaEntradaBetween(
+                usuario.getId(), LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        assertThat(entradas).hasSize(3);
+        entradas.forEach(EntityGraphQueryCountTest::recorrer);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void todasLasEntradasCarganAsociacionesEnUnaSentencia() {
+        List<EntradaDiaria> entradas = entradaDiariaRepository.findAll();
+
+        assertThat(entradas).hasSize(3);
+        entradas.forEach(EntityGraphQueryCountTest::recorrer);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listadoDelMesEsUnaSolaProyeccion() {
+        List<EntradaResumen> resumen = entradaDiariaRepository.findResumenByUsuarioIdAndFechaEntradaBetween(
+                usuario.getId(), LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        assertThat(resumen).hasSize(3);
+        assertThat(resumen).extracting(EntradaResumen::diaMaestroId).doesNotContainNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pedidosCarganDiarioYUsuarioEnUnaSentencia() {
+        List<Pedido> porEmail = pedidoRepository.findByEmail(usuario.getEmail());
+        assertThat(porEmail).hasSize(2);
+        porEmail.forEach(EntityGraphQueryCountTest::recorrer);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        em.clear();
+        List<Pedido> confirmados = pedidoRepository.findByUsuarioIdAndEstado(usuario.getId(), "CONFIRMADO");
+        assertThat(confirmados).hasSize(1);
+        confirmados.forEach(EntityGraphQueryCountTest::recorrer);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void diasYMesesDelDiarioCarganSuJerarquiaEnUnaSentencia() {
+        List<DiaMaestro> dias = diaMaestroRepository.findByMesMaestro_DiarioAnual_Id(diario.getId());
+        assertThat(dias).hasSize(3);
+        dias.forEach(d -> assertThat(d.getMesMaestro().getDiarioAnual().getTitulo()).isEqualTo("Diario 2026"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        em.clear();
+        List<MesMaestro> meses = mesMaestroRepository.findByDiarioAnual_Id(diario.getId());
+        assertThat(meses).hasSize(1);
+        meses.forEach(m -> assertThat(m.getDiarioAnual().getTitulo()).isEqualTo("Diario 2026"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void valoresDeUnaEntradaCarganSuCampoEnUnaSentencia() {
+        List<ValoresCampo> valores = valoresCampoRepository.findByEntradaDiariaId(primeraEntrada.getId());
+
+        assertThat(valores).hasSize(2);
+        valores.forEach(v -> assertThat(v.getCamposDiario().getNombreCampo()).isNotBlank());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // Lo mismo que toca Jackson al serializar la entrada
+    private static void recorrer(EntradaDiaria entrada) {
+        assertThat(entrada.getUsuario().getEmail()).isNotBlank();
+        assertThat(entrada.getDiario().getTitulo()).isNotBlank();
+        assertThat(entrada.getDiaMaestro().getMesMaestro().getDiarioAnual().getTitulo()).isNotBlank();
+    }
+
+    private static void recorrer(Pedido pedido) {
+        assertThat(pedido.getDiarioAnual().getTitulo()).isNotBlank();
+        assertThat(pedido.getUsuario().getEmail()).isNotBlank();
+    }
+}
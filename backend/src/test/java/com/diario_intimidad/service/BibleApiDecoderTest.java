@@ -0,0 +1,159 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El resultado no puede depender de cómo llegue troceado el cuerpo: cada división (también dentro de
+ * una cadena, de un escape o de un carácter UTF-8 de varios bytes) debe dar los mismos versículos que
+ * leer la respuesta entera con {@link ObjectMapper}.
+ */
+class BibleApiDecoderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String CHAPTER = """
+            {"testament":"Nuevo Testamento","name":"Juan","num_chapters":21,"chapter":3,
+             "vers":[
+              {"verse":"Había un hombre de los fariseos que se llamaba Nicodemo","number":1,"study":"Jesús y Nicodemo","id":26047},
+              {"number":2,"verse":"Este vino a Jesús de noche, y le dijo: Rabí, sabemos que has venido de Dios como maestro","id":26048},
+              {"number":16,"verse":"Porque de tal manera amó Dios al mundo, que ha dado a su Hijo unigénito 🙏","id":26062},
+              {"number":17,"verse":"Con \\"comillas\\", barra \\\\ y \\u00f1and\\u00fa","id":26063,"extra":{"nested":[1,2,{"a":null}]}}
+             ]}""";
+
+    private static final String LIST = """
+            [{"verse":"En el principio creó Dios los cielos y la tierra.","number":1,"id":1,"study":"La creación"},
+             {"verse":"Y la tierra estaba desordenada y vacía","number":2,"id":2}]""";
+
+    private static final String SINGLE = """
+            {"verse":"Jehová es mi pastor; nada me faltará.","number":1,"study":"Salmo de David","id":14370}""";
+
+    @ParameterizedTest
+    @ValueSource(strings = {CHAPTER, LIST, SINGLE})
+    void cualquierDivisionEnDosTrozosCoincideConLaLecturaCompleta(String payload) throws Exception {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        List<BibleVerse> expected = oneShot(bytes);
+        assertThat(expected).isNotEmpty();
+        for (int split = 0; split <= bytes.length; split++) {
+            List<BibleVerse> verses = decode(Arrays.copyOfRange(bytes, 0, split), Arrays.copyOfRange(bytes, split, bytes.length));
+            assertThat(verses).as("división en el byte %d", split).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void byteAByteYTrozosAleatoriosCoincidenConLaLecturaCompleta() throws Exception {
+        byte[] bytes = CHAPTER.getBytes(StandardCharsets.UTF_8);
+        List<BibleVerse> expected = oneShot(bytes);
+
+        byte[][] single = new byte[bytes.length][];
+        for (int i = 0; i < bytes.length; i++) {
+            single[i] = new byte[]{bytes[i]};
+        }
+        assertThat(decode(single)).isEqualTo(expected);
+
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            List<byte[]> chunks = new ArrayList<>();
+            int pos = 0;
+            while (pos < bytes.length) {
+                int len = Math.min(bytes.length - pos, 1 + random.nextInt(24));
+                chunks.add(Arrays.copyOfRange(bytes, pos, pos + len));
+                pos += len;
+            }
+            assertThat(decode(chunks.toArray(byte[][]::new))).as("ejecución %d", run).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void divisionDentroDeUnCaracterDeVariosBytes() {
+        byte[] bytes = CHAPTER.getBytes(StandardCharsets.UTF_8);
+        byte[] emoji = "🙏".getBytes(StandardCharsets.UTF_8);
+        int start = indexOf(bytes, emoji);
+        for (int cut = 1; cut < emoji.length; cut++) {
+            List<BibleVerse> verses = decode(Arrays.copyOfRange(bytes, 0, start + cut), Arrays.copyOfRange(bytes, start + cut, bytes.length));
+            assertThat(verses).extracting(BibleVerse::text).anyMatch(text -> text.endsWith("unigénito 🙏"));
+        }
+        assertThat(decode(bytes)).filteredOn(v -> v.number() == 17).extracting(BibleVerse::text)
+                .containsExactly("Con \"comillas\", barra \\ y ñandú");
+    }
+
+    @Test
+    void objetosSinTextoNoSonVersiculos() {
+        String payload = "{\"number\":3,\"vers\":[{\"number\":4,\"verse\":5},{\"id\":1}],\"meta\":{\"verse\":\"suelto\"}}";
+        assertThat(decode(payload.getBytes(StandardCharsets.UTF_8))).containsExactly(new BibleVerse(0, "suelto"));
+        assertThat(decode("[]".getBytes(StandardCharsets.UTF_8))).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"vers\":[{\"number\":1,\"verse\":\"a\"]}",
+            "{\"vers\":[{\"number\":1 \"verse\":\"a\"}]}",
+            "<html><body>502 Bad Gateway</body></html>",
+            "{\"verse\":\"a\"}}"
+    })
+    void jsonMalFormadoFalla(String payload) {
+        assertThatThrownBy(() -> decode(payload.getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Respuesta no válida de la API bíblica");
+    }
+
+    @Test
+    void respuestaTruncadaFalla() {
+        byte[] bytes = CHAPTER.getBytes(StandardCharsets.UTF_8);
+        for (int length : new int[]{1, bytes.length / 3, indexOf(bytes, "🙏".getBytes(StandardCharsets.UTF_8)) + 2, bytes.length - 1}) {
+            assertThatThrownBy(() -> decode(Arrays.copyOf(bytes, length)))
+                    .as("truncado a %d bytes", length)
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private static List<BibleVerse> decode(byte[]... chunks) {
+        BibleApiDecoder decoder = new BibleApiDecoder();
+        for (byte[] chunk : chunks) {
+            decoder.feed(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return decoder.finish();
+    }
+
+    // Misma regla que el decodificador sobre el árbol completo: objetos con "verse" de texto, en orden de cierre
+    private static List<BibleVerse> oneShot(byte[] bytes) throws Exception {
+        List<BibleVerse> verses = new ArrayList<>();
+        collect(MAPPER.readTree(bytes), verses);
+        return verses;
+    }
+
+    private static void collect(JsonNode node, List<BibleVerse> out) {
+        node.elements().forEachRemaining(child -> collect(child, out));
+        if (node.isObject() && node.path("verse").isTextual()) {
+            JsonNode number = node.path("number");
+            out.add(new BibleVerse(number.isInt() ? number.intValue() : 0, node.get("verse").textValue()));
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        outer:
+        for (int i = 0; i <= data.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (data[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalArgumentException("no encontrado");
+    }
+}
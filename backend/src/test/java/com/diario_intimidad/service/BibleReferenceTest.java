@@ -0,0 +1,104 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.service.BibleReference.Segment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BibleReferenceTest {
+
+    private static final int JUAN = BibleBooks.indexOf("juan");
+    private static final int MATEO = BibleBooks.indexOf("mateo");
+    private static final int SALMOS = BibleBooks.indexOf("salmos");
+    private static final int CORINTIOS_1 = BibleBooks.indexOf("1-corintios");
+
+    @Test
+    void versiculoSuelto() {
+        assertThat(segments("Juan 3:16")).containsExactly(new Segment(JUAN, 3, 16, 3, 16));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Jn 3:16-18", "jn 3:16-18", "JN. 3:16 - 18", "Juan 3:16–18", "  Juan3:16-18  "})
+    void abreviaturasMayusculasYEspacios(String reference) {
+        assertThat(segments(reference)).containsExactly(new Segment(JUAN, 3, 16, 3, 18));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1 Co 13", "1Co 13", "1 Cor. 13", "1 Corintios 13", "1corintios 13"})
+    void librosNumerados(String reference) {
+        assertThat(segments(reference)).containsExactly(new Segment(CORINTIOS_1, 13, 0, 13, 0));
+    }
+
+    @Test
+    void tildesYMayusculasSeIgnoran() {
+        int sofonias = BibleBooks.indexOf("sofonias");
+        assertThat(segments("Sofonías 1")).containsExactly(new Segment(sofonias, 1, 0, 1, 0));
+        assertThat(segments("SOFONIAS 1")).containsExactly(new Segment(sofonias, 1, 0, 1, 0));
+        assertThat(segments("Sofónías 1")).containsExactly(new Segment(sofonias, 1, 0, 1, 0));
+        assertThat(segments("Éxodo 20:1-17")).containsExactly(new Segment(BibleBooks.indexOf("exodo"), 20, 1, 20, 17));
+    }
+
+    @Test
+    void rangoDeCapitulos() {
+        assertThat(segments("Sal 1-2")).containsExactly(new Segment(SALMOS, 1, 0, 2, 0));
+        assertThat(segments("Sal 23").get(0).wholeChapters()).isTrue();
+    }
+
+    @Test
+    void rangoQueCruzaCapitulos() {
+        assertThat(segments("Juan 3:16-4:2")).containsExactly(new Segment(JUAN, 3, 16, 4, 2));
+        // Sin versículo inicial el tramo empieza en el primero del capítulo
+        assertThat(segments("Juan 3-4:2")).containsExactly(new Segment(JUAN, 3, 1, 4, 2));
+    }
+
+    @Test
+    void referenciasCompuestasConPuntoYComa() {
+        assertThat(segments("Juan 3:16-4:2; 5:1")).containsExactly(
+                new Segment(JUAN, 3, 16, 4, 2),
+                new Segment(JUAN, 5, 1, 5, 1));
+        assertThat(segments("Juan 3:16; Mt 5:3")).containsExactly(
+                new Segment(JUAN, 3, 16, 3, 16),
+                new Segment(MATEO, 5, 3, 5, 3));
+    }
+
+    @Test
+    void versiculosSeparadosPorComas() {
+        assertThat(segments("Mt 5:3,7-9")).containsExactly(
+                new Segment(MATEO, 5, 3, 5, 3),
+                new Segment(MATEO, 5, 7, 5, 9));
+        // Las comas siguen al último capítulo del tramo
+        assertThat(segments("Juan 3:16-4:2, 5")).containsExactly(
+                new Segment(JUAN, 3, 16, 4, 2),
+                new Segment(JUAN, 4, 5, 4, 5));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "Lectura libre del día", "Juan", "Salmones 1", "Juan 3:", "Juan 3:16;", "Juan 3:16 extra",
+            "Juan 3:18-16", "Juan 4-3", "Juan 0", "Juan 1000", "Mt 5:3,9-7", "Juan 3,4", "3:16", "Juan 3:16-4:"
+    })
+    void textoQueNoEsReferencia(String text) {
+        assertThat(BibleReference.parse(text)).isNull();
+    }
+
+    @Test
+    void indiceDeLibroSoloConNombreCompleto() {
+        assertThat(BibleReference.bookIndex("1 Corintios")).isEqualTo(CORINTIOS_1);
+        assertThat(BibleReference.bookIndex(" jn ")).isEqualTo(JUAN);
+        assertThat(BibleReference.bookIndex("Salmones")).isEqualTo(-1);
+        assertThat(BibleReference.bookIndex("Juan 3")).isEqualTo(-1);
+        assertThat(BibleBooks.indexOf("Génesis")).isZero();
+    }
+
+    private static List<Segment> segments(String reference) {
+        BibleReference parsed = BibleReference.parse(reference);
+        assertThat(parsed).as(reference).isNotNull();
+        return parsed.segments();
+    }
+}
@@ -0,0 +1,47 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.BibleVerse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Un pasaje que no existe no se guarda: la siguiente consulta vuelve al cargador y, si entonces
+ * aparece, se cachea con normalidad.
+ */
+class BibleVerseCacheTest {
+
+    private static final BiblePassageKey KEY = BiblePassageKey.chapter("rv1960", "JHN", 3);
+
+    private BibleVerseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BibleVerseCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(12));
+        ReflectionTestUtils.setField(cache, "staleTtl", Duration.ofDays(7));
+    }
+
+    @Test
+    void pasajeInexistenteNoSeCachea() {
+        AtomicInteger loads = new AtomicInteger();
+        List<BibleVerse> verses = List.of(new BibleVerse(16, "Porque de tal manera amó Dios al mundo"));
+
+        assertThat(cache.get(KEY, () -> { loads.incrementAndGet(); return Mono.empty(); }).block()).isNull();
+        assertThat(cache.get(KEY, () -> { loads.incrementAndGet(); return Mono.just(List.of()); }).block()).isEmpty();
+        assertThat(cache.getStats()).containsEntry("size", 0);
+
+        assertThat(cache.get(KEY, () -> { loads.incrementAndGet(); return Mono.just(verses); }).block()).isEqualTo(verses);
+        assertThat(cache.get(KEY, () -> { loads.incrementAndGet(); return Mono.empty(); }).block()).isEqualTo(verses);
+        assertThat(loads).hasValue(3);
+        assertThat(cache.getStats()).containsEntry("size", 1).containsEntry("hits", 1L);
+    }
+}
@@ -0,0 +1,117 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.CalendarEntryResponse;
+import com.diario_intimidad.entity.CamposDiario;
+import com.diario_intimidad.entity.DiaMaestro;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.EntradaDiaria;
+import com.diario_intimidad.entity.MesMaestro;
+import com.diario_intimidad.entity.Usuario;
+import com.diario_intimidad.repository.EntradaDiariaBatchRepository;
+import com.diario_intimidad.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link DailyEntryService#getTodayData} es la página más consultada: el día sale de {@link CalendarIndex},
+ * los campos de {@link CamposDiarioCache} y solo los valores del usuario requieren una consulta.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DailyEntryService.class, CalendarIndex.class, CamposDiarioCache.class})
+class DailyEntryServiceQueryCountTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DailyEntryService dailyEntryService;
+
+    @Autowired
+    private CalendarIndex calendarIndex;
+
+    // Solo se usan al guardar, no en la lectura
+    @MockBean
+    private EntradaDiariaBatchRepository entradaDiariaBatchRepository;
+
+    @MockBean
+    private ProgresoService progresoService;
+
+    private Statistics statistics;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        DiarioAnual diario = TestData.diario(em, 2026);
+        MesMaestro mes = TestData.mes(em, diario, 3);
+        CamposDiario reflexion = TestData.campo(em, diario, "Reflexión", 1);
+        CamposDiario oracion = TestData.campo(em, diario, "Oración", 2);
+        TestData.campo(em, diario, "Gratitud", 3);
+        usuario = TestData.usuario(em, "lector@test.local");
+        for (int d = 1; d <= 3; d++) {
+            DiaMaestro dia = TestData.dia(em, mes, d);
+            EntradaDiaria entrada = TestData.entrada(em, usuario, dia, LocalDate.of(2026, 3, d));
+            TestData.valor(em, entrada, reflexion, "texto " + d);
+            TestData.valor(em, entrada, oracion, "oración " + d);
+        }
+        em.flush();
+        em.clear();
+        calendarIndex.refresh();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void conEsquemaEnCacheSoloConsultaLosValoresDelUsuario() {
+        dailyEntryService.getTodayData(FECHA, usuario.getId());
+        statistics.clear();
+
+        CalendarEntryResponse response = dailyEntryService.getTodayData(FECHA, usuario.getId());
+
+        assertThat(response.camposDiario()).hasSize(3);
+        assertThat(response.valoresCampo()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void primeraConsultaDelDiarioCargaElEsquemaUnaVez() {
+        CalendarEntryResponse response = dailyEntryService.getTodayData(FECHA, usuario.getId());
+
+        assertThat(response.camposDiario()).hasSize(3);
+        assertThat(response.valoresCampo()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void sinUsuarioNoConsultaValores() {
+        dailyEntryService.getTodayData(FECHA, null);
+        statistics.clear();
+
+        CalendarEntryResponse response = dailyEntryService.getTodayData(FECHA, null);
+
+        assertThat(response.camposDiario()).hasSize(3);
+        assertThat(response.valoresCampo()).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.DailyEntryRequest;
+import com.diario_intimidad.entity.DiaMaestro;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.MesMaestro;
+import com.diario_intimidad.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * El guardado explícito sustituye al borrador pendiente: aunque su volcado falle, el borrador no
+ * puede volver al buffer y pisar después lo que el usuario acaba de guardar.
+ */
+class DraftBufferServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2026, 3, 2);
+
+    private DailyEntryService dailyEntryService;
+    private DraftBufferService draftBuffer;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        DiarioAnual diario = new DiarioAnual();
+        diario.setId(1L);
+        MesMaestro mes = new MesMaestro();
+        mes.setId(3L);
+        mes.setDiarioAnual(diario);
+        DiaMaestro dia = new DiaMaestro();
+        dia.setId(20L);
+        dia.setMesMaestro(mes);
+        usuario = new Usuario();
+        usuario.setId(7L);
+
+        dailyEntryService = mock(DailyEntryService.class);
+        when(dailyEntryService.resolverDiaMaestro(FECHA)).thenReturn(dia);
+
+        draftBuffer = new DraftBufferService();
+        ReflectionTestUtils.setField(draftBuffer, "dailyEntryService", dailyEntryService);
+        // Todos los borradores vencen en el siguiente volcado programado
+        ReflectionTestUtils.setField(draftBuffer, "idleMs", 0L);
+        ReflectionTestUtils.setField(draftBuffer, "maxAgeMs", 0L);
+    }
+
+    @Test
+    void guardadoExplicitoDescartaElBorradorCuyoVolcadoFalla() {
+        draftBuffer.bufferDraft(usuario, FECHA, List.of(valor(100L, "borrador")));
+        when(dailyEntryService.guardarBorrador(any(), any(), any(), any(), anyList()))
+                .thenThrow(new IllegalStateException("base de datos caída"));
+        List<DailyEntryRequest.CampoValor> guardado = List.of(valor(100L, "definitivo"));
+        when(dailyEntryService.guardarEntrada(usuario, FECHA, guardado)).thenReturn(55L);
+
+        draftBuffer.guardarEntrada(usuario, FECHA, guardado);
+        draftBuffer.flushDue();
+        draftBuffer.flushAll();
+
+        verify(dailyEntryService).guardarEntrada(usuario, FECHA, guardado);
+        verify(dailyEntryService, times(1)).guardarBorrador(eq(7L), eq(1L), eq(20L), eq(FECHA), anyList());
+    }
+
+    @Test
+    void volcadoProgramadoFallidoSeReintenta() {
+        draftBuffer.bufferDraft(usuario, FECHA, List.of(valor(100L, "borrador")));
+        when(dailyEntryService.guardarBorrador(any(), any(), any(), any(), anyList()))
+                .thenThrow(new IllegalStateException("base de datos caída"))
+                .thenReturn(55L);
+
+        draftBuffer.flushDue();
+        draftBuffer.flushDue();
+        draftBuffer.flushDue();
+
+        verify(dailyEntryService, times(2)).guardarBorrador(eq(7L), eq(1L), eq(20L), eq(FECHA), anyList());
+        verify(dailyEntryService, never()).guardarEntrada(any(), any(), anyList());
+    }
+
+    private static DailyEntryRequest.CampoValor valor(Long campoId, String texto) {
+        DailyEntryRequest.CampoValor cv = new DailyEntryRequest.CampoValor();
+        cv.setCampoDiarioId(campoId);
+        cv.setValorTexto(texto);
+        return cv;
+    }
+}
@@ -0,0 +1,184 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.dto.ProgresoAnualResponse;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.ProgresoAnual;
+import com.diario_intimidad.repository.EntradaDiariaRepository;
+import com.diario_intimidad.repository.ProgresoAnualRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bitmap de 366 días y rachas de {@link ProgresoService}, con los repositorios simulados: la fila
+ * de progreso vive en memoria y cada {@code registrarDia} la modifica como lo haría sobre la base de datos.
+ */
+class ProgresoServiceTest {
+
+    private static final Long USUARIO = 7L;
+
+    private ProgresoAnualRepository progresoAnualRepository;
+    private EntradaDiariaRepository entradaDiariaRepository;
+    private CalendarIndex calendarIndex;
+    private ProgresoService progresoService;
+    private ProgresoAnual fila;
+
+    @BeforeEach
+    void setUp() {
+        progresoAnualRepository = mock(ProgresoAnualRepository.class);
+        entradaDiariaRepository = mock(EntradaDiariaRepository.class);
+        calendarIndex = mock(CalendarIndex.class);
+        progresoService = new ProgresoService();
+        ReflectionTestUtils.setField(progresoService, "progresoAnualRepository", progresoAnualRepository);
+        ReflectionTestUtils.setField(progresoService, "entradaDiariaRepository", entradaDiariaRepository);
+        ReflectionTestUtils.setField(progresoService, "calendarIndex", calendarIndex);
+
+        // La fila ya existe: insertIfAbsent no crea nada y findForUpdate la devuelve
+        fila = new ProgresoAnual();
+        fila.setDiasCompletados(new byte[(ProgresoService.DIAS_BITMAP + 7) / 8]);
+        when(progresoAnualRepository.findForUpdate(any(), any())).thenReturn(Optional.of(fila));
+        when(progresoAnualRepository.findByUsuarioIdAndDiarioId(any(), any())).thenReturn(Optional.of(fila));
+    }
+
+    @Test
+    void ultimoDiaDeUnAnioBisiestoUsaElBit366() {
+        DiarioAnual diario = diario(2024);
+
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 12, 31), true);
+
+        // Día 366 -> índice 365 -> byte 45, bit 5
+        assertThat(fila.getDiasCompletados()[45]).isEqualTo((byte) (1 << 5));
+        assertThat(fila.getUltimaFechaCompletada()).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(progresoService.getProgreso(USUARIO, 2024).getDiasDelAnio()).isEqualTo(366);
+
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 2, 29), true);
+        assertThat(fila.getTotalCompletados()).isEqualTo(2);
+        assertThat(fila.getUltimaFechaCompletada()).isEqualTo(LocalDate.of(2024, 12, 31));
+    }
+
+    @Test
+    void ultimoDiaDeUnAnioNoBisiestoUsaElBit365() {
+        DiarioAnual diario = diario(2026);
+
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2026, 12, 31), true);
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2026, 3, 1), true);
+
+        // Día 365 -> índice 364 -> byte 45, bit 4; el 1 de marzo es el día 60, no el 61
+        assertThat(fila.getDiasCompletados()[45]).isEqualTo((byte) (1 << 4));
+        assertThat(fila.getDiasCompletados()[59 >>> 3] & (1 << (59 & 7))).isNotZero();
+        assertThat(fila.getUltimaFechaCompletada()).isEqualTo(LocalDate.of(2026, 12, 31));
+        assertThat(progresoService.getProgreso(USUARIO, 2026).getDiasDelAnio()).isEqualTo(365);
+    }
+
+    @Test
+    void rachaMaximaYRachaDelUltimoDia() {
+        DiarioAnual diario = diario(2024);
+        for (int d = 1; d <= 5; d++) {
+            progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 3, d), true);
+        }
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 3, 10), true);
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 3, 11), true);
+
+        assertThat(fila.getTotalCompletados()).isEqualTo(7);
+        assertThat(fila.getRachaMaxima()).isEqualTo(5);
+        assertThat(fila.getRachaActual()).isEqualTo(2);
+        assertThat(fila.getUltimaFechaCompletada()).isEqualTo(LocalDate.of(2024, 3, 11));
+
+        // Desmarcar un día intermedio parte la racha más larga
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 3, 3), false);
+        assertThat(fila.getTotalCompletados()).isEqualTo(6);
+        assertThat(fila.getRachaMaxima()).isEqualTo(2);
+        assertThat(fila.getRachaActual()).isEqualTo(2);
+    }
+
+    @Test
+    void rachaQueCruzaFinDeFebreroEnBisiesto() {
+        DiarioAnual diario = diario(2024);
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 2, 28), true);
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 2, 29), true);
+        progresoService.registrarDia(USUARIO, diario, LocalDate.of(2024, 3, 1), true);
+
+        assertThat(fila.getRachaActual()).isEqualTo(3);
+        assertThat(fila.getRachaMaxima()).isEqualTo(3);
+    }
+
+    @Test
+    void registrarElMismoDiaDosVecesNoVuelveAGuardar() {
+        DiarioAnual diario = diario(2024);
+        LocalDate fecha = LocalDate.of(2024, 6, 15);
+
+        progresoService.registrarDia(USUARIO, diario, fecha, true);
+        progresoService.registrarDia(USUARIO, diario, fecha, true);
+        // Desmarcar un día que no estaba marcado tampoco escribe
+        progresoService.registrarDia(USUARIO, diario, fecha.plusDays(1), false);
+
+        assertThat(fila.getTotalCompletados()).isEqualTo(1);
+        assertThat(fila.getRachaActual()).isEqualTo(1);
+        verify(progresoAnualRepository, times(1)).save(fila);
+    }
+
+    @Test
+    void rachaActualSigueVigenteHoyYAyerPeroNoAnteayer() {
+        LocalDate hoy = LocalDate.now();
+        // El bitmap es por año: la racha de ayer y hoy solo se puede comprobar si ambos caen en el mismo año
+        assumeThat(hoy.getDayOfYear()).isGreaterThan(2);
+        DiarioAnual diario = diario(hoy.getYear());
+
+        progresoService.registrarDia(USUARIO, diario, hoy.minusDays(1), true);
+        assertThat(progresoService.getProgreso(USUARIO, hoy.getYear()).getRachaActual()).isEqualTo(1);
+
+        progresoService.registrarDia(USUARIO, diario, hoy, true);
+        assertThat(progresoService.getProgreso(USUARIO, hoy.getYear()).getRachaActual()).isEqualTo(2);
+
+        progresoService.registrarDia(USUARIO, diario, hoy, false);
+        progresoService.registrarDia(USUARIO, diario, hoy.minusDays(1), false);
+        progresoService.registrarDia(USUARIO, diario, hoy.minusDays(2), true);
+        ProgresoAnualResponse response = progresoService.getProgreso(USUARIO, hoy.getYear());
+        assertThat(response.getRachaActual()).isZero();
+        assertThat(response.getRachaMaxima()).isEqualTo(1);
+    }
+
+    @Test
+    void getProgresoSinFilaCalculaEnMemoriaSinEscribir() {
+        DiarioAnual diario = diario(2024);
+        when(progresoAnualRepository.findByUsuarioIdAndDiarioId(USUARIO, diario.getId())).thenReturn(Optional.empty());
+        when(entradaDiariaRepository.findFechasCompletadas(USUARIO, diario.getId())).thenReturn(List.of(
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2), LocalDate.of(2024, 12, 31),
+                // De otro año: no cuenta
+                LocalDate.of(2023, 12, 31)));
+
+        ProgresoAnualResponse response = progresoService.getProgreso(USUARIO, 2024);
+
+        assertThat(response.getDiarioId()).isEqualTo(diario.getId());
+        assertThat(response.getTotalCompletados()).isEqualTo(3);
+        assertThat(response.getRachaMaxima()).isEqualTo(2);
+        assertThat(response.getUltimaFechaCompletada()).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(response.getRachaActual()).isZero();
+        assertThat(response.getDiasCompletados()[45]).isEqualTo((byte) (1 << 5));
+        verify(progresoAnualRepository, never()).insertIfAbsent(anyLong(), anyLong(), any());
+        verify(progresoAnualRepository, never()).findForUpdate(any(), any());
+        verify(progresoAnualRepository, never()).save(any());
+    }
+
+    private DiarioAnual diario(int anio) {
+        DiarioAnual diario = new DiarioAnual();
+        diario.setId((long) anio);
+        diario.setAnio(anio);
+        when(calendarIndex.findDiario(anio)).thenReturn(Optional.of(diario));
+        return diario;
+    }
+}
@@ -0,0 +1,163 @@
+package com.diario_intimidad.service;
+
+import com.diario_intimidad.service.RateLimiter.Group;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cubos GCRA de {@link RateLimiter} con un reloj controlado: se pasa {@code now} en nanosegundos
+ * en lugar de usar {@link System#nanoTime()}.
+ */
+class RateLimiterTest {
+
+    private static final long T0 = TimeUnit.DAYS.toNanos(3);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final String IP = "203.0.113.7";
+
+    @Test
+    void rafagaYRellenoAlRitmoConfigurado() {
+        // 3 fichas, una por segundo
+        RateLimiter limiter = limiter(3, 60, 3, 60, 600_000, 100_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0)).isZero();
+        }
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0)).isEqualTo(1000);
+
+        // Medio segundo después aún falta la otra mitad
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND / 2)).isEqualTo(500);
+        // Al segundo hay exactamente una ficha más
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND)).isZero();
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND)).isEqualTo(1000);
+
+        // Tras el tiempo de llenar el cubo entero vuelve la ráfaga completa, no más
+        long lleno = T0 + 4 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, lleno)).isZero();
+        }
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, lleno)).isPositive();
+    }
+
+    @Test
+    void esperaSeRedondeaHaciaArriba() {
+        RateLimiter limiter = limiter(1, 60, 1, 60, 600_000, 100_000);
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0)).isZero();
+
+        // Falta 1 ns: un milisegundo, nunca 0 (0 significa "permitido")
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND - 1)).isEqualTo(1);
+        // Falta 1,5 ms: hay que esperar 2 ms para que el reintento llegue después de la ficha
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND - 1_500_000)).isEqualTo(2);
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND - 2_000_000)).isEqualTo(2);
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0 + SECOND)).isZero();
+    }
+
+    @Test
+    void rechazoDelUsuarioDevuelveLaFichaDeLaIp() {
+        // La IP admite 2 seguidas; el usuario solo 1
+        RateLimiter limiter = limiter(2, 60, 1, 60, 600_000, 100_000);
+
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, 7L, T0)).isZero();
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, 7L, T0)).isEqualTo(1000);
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, 7L, T0)).isEqualTo(1000);
+
+        // Los rechazos del usuario no gastaron la IP: a otro cliente de la misma red le queda su ficha
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0)).isZero();
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, 8L, T0)).isEqualTo(1000);
+
+        Map<String, Object> bible = group(limiter, "bible");
+        assertThat(bible).containsEntry("allowed", 2L).containsEntry("rejectedUser", 2L).containsEntry("rejectedIp", 1L);
+    }
+
+    @Test
+    void cubosDeOtroGrupoSonIndependientes() {
+        RateLimiter limiter = limiter(1, 60, 1, 60, 600_000, 100_000);
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0)).isZero();
+        assertThat(limiter.tryAcquire(Group.BIBLE, IP, null, T0)).isPositive();
+        assertThat(limiter.tryAcquire(Group.DIARIOS, IP, null, T0)).isZero();
+    }
+
+    @Test
+    void expulsionPeriodicaSoloQuitaCubosLlenosDesdeHaceIdleEvictMs() {
+        RateLimiter limiter = limiter(3, 60, 3, 60, 1000, 100_000);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(Group.BIBLE, "10.0.0.1", null, T0);
+        }
+        limiter.tryAcquire(Group.BIBLE, "10.0.0.2", null, T0);
+
+        // 10.0.0.2 está lleno desde T0 + 1 s; 10.0.0.1 no lo estará hasta T0 + 3 s
+        limiter.evictIdle(T0 + SECOND + SECOND / 2);
+        assertThat(limiter.getStats()).containsEntry("keys", 2).containsEntry("evicted", 0L);
+
+        limiter.evictIdle(T0 + 2 * SECOND + SECOND / 2);
+        assertThat(limiter.getStats()).containsEntry("keys", 1).containsEntry("evicted", 1L);
+
+        // 10.0.0.1 conserva su estado: a T0 + 2,5 s le quedan 2 fichas, no las 3 de un cubo nuevo
+        long now = T0 + 2 * SECOND + SECOND / 2;
+        assertThat(limiter.tryAcquire(Group.BIBLE, "10.0.0.1", null, now)).isZero();
+        assertThat(limiter.tryAcquire(Group.BIBLE, "10.0.0.1", null, now)).isZero();
+        assertThat(limiter.tryAcquire(Group.BIBLE, "10.0.0.1", null, now)).isPositive();
+    }
+
+    @Test
+    void alLlenarseElMapaSoloSeExpulsanCubosLlenos() {
+        // Una clave por franja antes de limpiar; 1 ficha por segundo
+        RateLimiter limiter = limiter(1, 60, 1, 60, 600_000, 16);
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(Group.BIBLE, "10.0.0." + i, null, T0)).isZero();
+        }
+        // Ningún cubo está lleno todavía: no se pierde ninguno aunque se supere max-keys
+        assertThat(limiter.getStats()).containsEntry("keys", 100).containsEntry("evicted", 0L);
+
+        long later = T0 + 2 * SECOND;
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(Group.BIBLE, "10.0.1." + i, null, later)).isZero();
+        }
+        Map<String, Object> stats = limiter.getStats();
+        assertThat((long) stats.get("evicted")).isPositive();
+        assertThat((int) stats.get("keys") + (long) stats.get("evicted")).isEqualTo(200L);
+        // Los cubos recién usados no se expulsaron: siguen sin ficha
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(Group.BIBLE, "10.0.1." + i, null, later)).as("10.0.1.%d", i).isPositive();
+        }
+    }
+
+    @Test
+    void desactivadoSiemprePermite() {
+        RateLimiter limiter = limiter(1, 60, 1, 60, 600_000, 100_000);
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(Group.BIBLE, IP, 7L, T0)).isZero();
+        }
+    }
+
+    // Solo el grupo BIBLE usa los valores indicados; el resto queda con límites holgados
+    private static RateLimiter limiter(int capacity, int perMinute, int userCapacity, int userPerMinute,
+                                       long idleEvictMs, int maxKeys) {
+        RateLimiter limiter = new RateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        for (String group : new String[]{"login", "pedidos", "diarios"}) {
+            ReflectionTestUtils.setField(limiter, group + "Capacity", 100);
+            ReflectionTestUtils.setField(limiter, group + "PerMinute", 100);
+            ReflectionTestUtils.setField(limiter, group + "UserCapacity", 100);
+            ReflectionTestUtils.setField(limiter, group + "UserPerMinute", 100);
+        }
+        ReflectionTestUtils.setField(limiter, "bibleCapacity", capacity);
+        ReflectionTestUtils.setField(limiter, "biblePerMinute", perMinute);
+        ReflectionTestUtils.setField(limiter, "bibleUserCapacity", userCapacity);
+        ReflectionTestUtils.setField(limiter, "bibleUserPerMinute", userPerMinute);
+        ReflectionTestUtils.setField(limiter, "idleEvictMs", idleEvictMs);
+        ReflectionTestUtils.setField(limiter, "maxKeys", maxKeys);
+        limiter.init();
+        return limiter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> group(RateLimiter limiter, String name) {
+        return (Map<String, Object>) ((Map<String, Object>) limiter.getStats().get("groups")).get(name);
+    }
+}
@@ -0,0 +1,96 @@
+package com.diario_intimidad.support;
+
+import com.diario_intimidad.entity.CamposDiario;
+import com.diario_intimidad.entity.DiaMaestro;
+import com.diario_intimidad.entity.DiarioAnual;
+import com.diario_intimidad.entity.EntradaDiaria;
+import com.diario_intimidad.entity.MesMaestro;
+import com.diario_intimidad.entity.Pedido;
+import com.diario_intimidad.entity.Usuario;
+import com.diario_intimidad.entity.ValoresCampo;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Datos mínimos para las pruebas de repositorio: un diario con su mes, días, campos, usuario,
+ * entradas y pedidos, persistidos con {@link TestEntityManager}.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static DiarioAnual diario(TestEntityManager em, int anio) {
+        DiarioAnual diario = new DiarioAnual();
+        diario.setAnio(anio);
+        diario.setTitulo("Diario " + anio);
+        diario.setTemaPrincipal("Tema");
+        diario.setStatus("ACTIVO");
+        return em.persist(diario);
+    }
+
+    public static MesMaestro mes(TestEntityManager em, DiarioAnual diario, int mesNumero) {
+        MesMaestro mes = new MesMaestro();
+        mes.setDiarioAnual(diario);
+        mes.setMesNumero(mesNumero);
+        mes.setNombre("Mes " + mesNumero);
+        return em.persist(mes);
+    }
+
+    public static DiaMaestro dia(TestEntityManager em, MesMaestro mes, int diaNumero) {
+        DiaMaestro dia = new DiaMaestro();
+        dia.setMesMaestro(mes);
+        dia.setDiaNumero(diaNumero);
+        dia.setTipoDia(DiaMaestro.TipoDia.NORMAL);
+        dia.setLecturaBiblica("Juan 3:16");
+        dia.setVersiculoDiario("Juan 3:16");
+        return em.persist(dia);
+    }
+
+    public static CamposDiario campo(TestEntityManager em, DiarioAnual diario, String nombre, int orden) {
+        CamposDiario campo = new CamposDiario();
+        campo.setDiarioAnual(diario);
+        campo.setNombreCampo(nombre);
+        campo.setTipoEntrada("TEXTO");
+        campo.setOrden(orden);
+        campo.setEsRequerido(true);
+        return em.persist(campo);
+    }
+
+    public static Usuario usuario(TestEntityManager em, String email) {
+        Usuario usuario = new Usuario();
+        usuario.setEmail(email);
+        usuario.setPassword("x");
+        return em.persist(usuario);
+    }
+
+    public static EntradaDiaria entrada(TestEntityManager em, Usuario usuario, DiaMaestro dia, LocalDate fecha) {
+        EntradaDiaria entrada = new EntradaDiaria();
+        entrada.setUsuario(usuario);
+        entrada.setDiario(dia.getMesMaestro().getDiarioAnual());
+        entrada.setDiaMaestro(dia);
+        entrada.setFechaEntrada(fecha);
+        entrada.setEstadoLlenado(new BigDecimal("100.00"));
+        entrada.setCompletado(true);
+        return em.persist(entrada);
+    }
+
+    public static ValoresCampo valor(TestEntityManager em, EntradaDiaria entrada, CamposDiario campo, String texto) {
+        ValoresCampo valor = new ValoresCampo();
+        valor.setEntradaDiaria(entrada);
+        valor.setCamposDiario(campo);
+        valor.setValorTexto(texto);
+        return em.persist(valor);
+    }
+
+    public static Pedido pedido(TestEntityManager em, DiarioAnual diario, Usuario usuario, String estado) {
+        Pedido pedido = new Pedido();
+        pedido.setDiarioAnual(diario);
+        pedido.setUsuario(usuario);
+        pedido.setEmail(usuario.getEmail());
+        pedido.setEstado(estado);
+        return em.persist(pedido);
+    }
+}
@@ -34,6 +34,16 @@ interface EntradaDiaria {
   completado: boolean;
 }
 
+interface DiaCalendario {
+  fecha: string;
+  diaNumero: number;
+  tipoDia: string;
+  lecturaBiblica?: string;
+  versiculoDiario?: string;
+  entradaId?: number;
+  completado: boolean;
+}
+
 interface DiarioAnual {
   id: number;
   titulo: string;
@@ -84,9 +94,14 @@ const Calendario: React.FC = () => {
       const promises = [];
       for (let mes = 1; mes <= 12; mes++) {
         promises.push(
-          axios.get(`${API_BASE_URL}/api/daily-entry/user-entries?anio=${selectedYear}&mes=${mes}`, {
+          axios.get(`${API_BASE_URL}/api/daily-entry/month?anio=${selectedYear}&mes=${mes}`, {
             headers: { Authorization: `Bearer ${token}` }
-          }).then(response => ({ mes, data: response.data }))
+          }).then(response => ({
+            mes,
+            data: (response.data as DiaCalendario[])
+              .filter(dia => dia.entradaId != null)
+              .map(dia => ({ id: dia.entradaId as number, fechaEntrada: dia.fecha, completado: dia.completado }))
+          }))
         );
       }
       const results = await Promise.all(promises);
@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import axios from 'axios';
 import { useNavigate, useSearchParams } from 'react-router-dom';
 import { API_BASE_URL } from '../constants/api';
@@ -9,8 +9,10 @@ interface DailyEntryData {
   lecturaBiblica?: string;
   versiculoDiario?: string;
   diarioAnual?: {
+    id: number;
     titulo: string;
     anio: number;
+    nombreLogo?: string;
   };
   camposDiario: CampoDiario[];
   valoresCampo?: CampoValor[];
@@ -83,6 +85,9 @@ const DailyEntry: React.FC = () => {
   const [ttsPitch, setTtsPitch] = useState<number>(1);
   const [ttsVolume, setTtsVolume] = useState<number>(1);
   const [showTtsSettings, setShowTtsSettings] = useState(false);
+  // Autoguardado: cambios pendientes por campo que se envían como borrador tras una pausa al escribir
+  const pendingDraft = useRef<{ [key: number]: CampoValor }>({});
+  const draftTimer = useRef<ReturnType<typeof setTimeout> | null>(null);
 
   useEffect(() => {
     // Establecer el año actual por defecto
@@ -152,9 +157,9 @@ const DailyEntry: React.FC = () => {
           });
           // Load existing valores if present
           if (response.data.valoresCampo) {
-            response.data.valoresCampo.forEach((valor: any) => {
-              initialValores[valor.camposDiario.id] = {
-                campoDiarioId: valor.camposDiario.id,
+            response.data.valoresCampo.forEach((valor: CampoValor) => {
+              initialValores[valor.campoDiarioId] = {
+                campoDiarioId: valor.campoDiarioId,
                 valorTexto: valor.valorTexto,
                 valorAudioUrl: valor.valorAudioUrl
               };
@@ -280,6 +285,9 @@ const DailyEntry: React.FC = () => {
       return;
     }
 
+    if (draftTimer.current) clearTimeout(draftTimer.current);
+    pendingDraft.current = {};
+
     try {
       const token = localStorage.getItem('token');
       const requestData = {
@@ -298,16 +306,34 @@ const DailyEntry: React.FC = () => {
     }
   };
 
+  const sendDraft = async () => {
+    const cambios = Object.values(pendingDraft.current);
+    pendingDraft.current = {};
+    if (!data || cambios.length === 0) return;
+    try {
+      const token = localStorage.getItem('token');
+      await axios.patch(`${API_BASE_URL}/api/daily-entry/draft`, { fecha: data.fecha, valoresCampo: cambios }, {
+        headers: { Authorization: `Bearer ${token}` }
+      });
+    } catch (error) {
+      console.error('Error saving draft', error);
+    }
+  };
+
   const handleFieldChange = (campoId: number, value: string, isAudioUrl?: boolean) => {
+    const actualizado = isAudioUrl
+      ? { ...valores[campoId], valorAudioUrl: value }
+      : { ...valores[campoId], valorTexto: value };
     setValores({
       ...valores,
-      [campoId]: isAudioUrl
-        ? { ...valores[campoId], valorAudioUrl: value }
-        : { ...valores[campoId], valorTexto: value }
+      [campoId]: actualizado
     });
     if (isSaved) {
       setHasChanges(true);
     }
+    pendingDraft.current[campoId] = actualizado;
+    if (draftTimer.current) clearTimeout(draftTimer.current);
+    draftTimer.current = setTimeout(sendDraft, 1500);
   };
 
   if (loading) return <div>Cargando...</div>;